@@ -103,6 +103,7 @@ import app.organicmaps.sdk.location.SensorListener;
 import app.organicmaps.sdk.location.TrackRecorder;
 import app.organicmaps.sdk.maplayer.isolines.IsolinesState;
 import app.organicmaps.sdk.routing.RouteMarkType;
+import app.organicmaps.sdk.routing.RouteProgress;
 import app.organicmaps.sdk.routing.RoutingController;
 import app.organicmaps.sdk.routing.RoutingOptions;
 import app.organicmaps.sdk.search.SearchEngine;
@@ -180,6 +181,7 @@ public class MwmActivity extends BaseMwmFragmentActivity
   private RoutingPlanInplaceController mRoutingPlanInplaceController;
 
   private NavigationController mNavigationController;
+  private final RouteProgress.Listener mRouteProgressListener = snapshot -> mNavigationController.update(snapshot.info);
 
   private MainMenu mMainMenu;
 
@@ -1286,6 +1288,7 @@ public class MwmActivity extends BaseMwmFragmentActivity
     MwmApplication.from(getApplicationContext()).getIsolinesManager().attach(this::onIsolinesStateChanged);
     LocationState.nativeSetListener(this);
     MwmApplication.from(this).getLocationHelper().addListener(this);
+    RouteProgress.get().addListener(mRouteProgressListener);
     mSearchController.attach(this);
     Utils.keepScreenOn(Config.isKeepScreenOnEnabled() || RoutingController.get().isNavigating(), getWindow());
   }
@@ -1297,6 +1300,7 @@ public class MwmActivity extends BaseMwmFragmentActivity
     Framework.nativeRemovePlacePageActivationListener(this);
     BookmarkManager.INSTANCE.removeLoadingListener(this);
     MwmApplication.from(this).getLocationHelper().removeListener(this);
+    RouteProgress.get().removeListener(mRouteProgressListener);
     if (mDisplayManager.isDeviceDisplayUsed() && !RoutingController.get().isNavigating())
     {
       LocationState.nativeRemoveListener();
@@ -1984,12 +1988,6 @@ public class MwmActivity extends BaseMwmFragmentActivity
   public void onLocationUpdated(@NonNull Location location)
   {
     dismissLocationErrorDialog();
-
-    final RoutingController routing = RoutingController.get();
-    if (!routing.isNavigating())
-      return;
-
-    mNavigationController.update(Framework.nativeGetRouteFollowingInfo());
   }
 
   @Override
@@ -28,6 +28,7 @@ public class BackupUtils
 {
   private static final String BACKUP_PREFIX = "backup_";
   private static final String BACKUP_EXTENSION = ".kmz";
+  private static final String MANIFEST_EXTENSION = ".manifest";
   private static final DateTimeFormatter DATE_FORMATTER =
       DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss").withLocale(Locale.US);
   private static final String TAG = BackupUtils.class.getSimpleName();
@@ -93,6 +94,16 @@ public class BackupUtils
     return BACKUP_PREFIX + formattedBackupTime + BACKUP_EXTENSION;
   }
 
+  public static String getManifestName(LocalDateTime backupTime)
+  {
+    return BACKUP_PREFIX + backupTime.format(DATE_FORMATTER) + MANIFEST_EXTENSION;
+  }
+
+  public static boolean isManifest(String fileName)
+  {
+    return fileName != null && fileName.startsWith(BACKUP_PREFIX) && fileName.endsWith(MANIFEST_EXTENSION);
+  }
+
   public static DocumentFile[] getBackupFolders(DocumentFile parentDir)
   {
     List<DocumentFile> backupFolders = new ArrayList<>();
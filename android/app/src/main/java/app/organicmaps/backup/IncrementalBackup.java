@@ -0,0 +1,339 @@
+package app.organicmaps.backup;
+
+import static app.organicmaps.backup.BackupUtils.getBackupFolders;
+import static app.organicmaps.backup.BackupUtils.getManifestName;
+import static app.organicmaps.backup.BackupUtils.isManifest;
+
+import android.app.Activity;
+import android.content.ContentResolver;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.documentfile.provider.DocumentFile;
+import app.organicmaps.sdk.util.StorageUtils;
+import app.organicmaps.sdk.util.log.Logger;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content-addressed backup of the bookmarks files.
+ * <p>
+ * Each category file is stored once in the objects folder, named by the SHA-256 of its content. A backup
+ * folder contains only a manifest of the category files. Files with the same size and modification time as
+ * in the previous manifest are not read again, and files whose content is stored already are not copied.
+ * <p>
+ * Manifest line: hash, size, modification time and name of the category file, separated by tabs.
+ * To restore a category, import its object file, which is a regular KML file.
+ */
+class IncrementalBackup
+{
+  private static final String TAG = IncrementalBackup.class.getSimpleName();
+
+  // Doesn't start with the backup folders prefix, so it is not removed with the old backups.
+  static final String OBJECTS_FOLDER = "bookmarks_objects";
+  private static final String OBJECT_EXTENSION = ".kml";
+  private static final String KML_MIME_TYPE = "application/vnd.google-earth.kml+xml";
+  // Providers could append the extension of a more specific type to the name.
+  private static final String MANIFEST_MIME_TYPE = "application/octet-stream";
+  private static final String MANIFEST_HEADER = "# Bookmarks backup manifest v1";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final class Entry
+  {
+    @NonNull
+    final String hash;
+    final long size;
+    final long lastModified;
+    @NonNull
+    final String name;
+
+    Entry(@NonNull String hash, long size, long lastModified, @NonNull String name)
+    {
+      this.hash = hash;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.name = name;
+    }
+  }
+
+  @NonNull
+  private final Activity mActivity;
+  @NonNull
+  private final ContentResolver mResolver;
+  @NonNull
+  private final DocumentFile mParentFolder;
+
+  IncrementalBackup(@NonNull Activity activity, @NonNull DocumentFile parentFolder)
+  {
+    mActivity = activity;
+    mResolver = activity.getContentResolver();
+    mParentFolder = parentFolder;
+  }
+
+  /**
+   * @return null on success.
+   */
+  @WorkerThread
+  @Nullable
+  LocalBackupManager.ErrorCode run(@NonNull LocalDateTime backupTime)
+  {
+    final File bookmarksDir = new File(StorageUtils.getSettingsPath(mActivity), "bookmarks");
+    final File[] files = bookmarksDir.listFiles((dir, name) -> name.endsWith(OBJECT_EXTENSION));
+    if (files == null || files.length == 0)
+      return LocalBackupManager.ErrorCode.EMPTY_CATEGORY;
+
+    DocumentFile objectsFolder = mParentFolder.findFile(OBJECTS_FOLDER);
+    if (objectsFolder == null)
+      objectsFolder = mParentFolder.createDirectory(OBJECTS_FOLDER);
+    if (objectsFolder == null || !objectsFolder.isDirectory())
+    {
+      Logger.e(TAG, "Failed to create objects folder");
+      return LocalBackupManager.ErrorCode.FILE_ERROR;
+    }
+
+    final Set<String> storedObjects = new HashSet<>();
+    for (DocumentFile object : objectsFolder.listFiles())
+      storedObjects.add(object.getName());
+    final Map<String, Entry> previous = readLastManifest();
+
+    final List<Entry> entries = new ArrayList<>(files.length);
+    int hashed = 0;
+    int copied = 0;
+    try
+    {
+      for (File file : files)
+      {
+        // Taken before the file is read, so a file saved in the middle is hashed again next time.
+        final long size = file.length();
+        final long lastModified = file.lastModified();
+        final Entry old = previous.get(file.getName());
+        final String hash;
+        if (old != null && old.size == size && old.lastModified == lastModified
+            && storedObjects.contains(old.hash + OBJECT_EXTENSION))
+        {
+          hash = old.hash;
+        }
+        else
+        {
+          hash = computeHash(file);
+          ++hashed;
+        }
+
+        final String objectName = hash + OBJECT_EXTENSION;
+        if (!storedObjects.contains(objectName))
+        {
+          final DocumentFile object = objectsFolder.createFile(KML_MIME_TYPE, objectName);
+          if (object == null || !StorageUtils.copyFileToDocumentFile(mActivity, file, object))
+          {
+            Logger.e(TAG, "Failed to store " + file.getName());
+            if (object != null)
+              object.delete();
+            return LocalBackupManager.ErrorCode.FILE_ERROR;
+          }
+          storedObjects.add(objectName);
+          ++copied;
+        }
+        entries.add(new Entry(hash, size, lastModified, file.getName()));
+      }
+    }
+    catch (IOException e)
+    {
+      Logger.e(TAG, "Failed to read bookmarks files", e);
+      return LocalBackupManager.ErrorCode.FILE_ERROR;
+    }
+
+    final DocumentFile backupFolder = BackupUtils.createUniqueBackupFolder(mParentFolder, backupTime);
+    if (backupFolder == null)
+    {
+      Logger.e(TAG, "Failed to create backup folder");
+      return LocalBackupManager.ErrorCode.FILE_ERROR;
+    }
+    final DocumentFile manifest = backupFolder.createFile(MANIFEST_MIME_TYPE, getManifestName(backupTime));
+    if (manifest == null || !writeManifest(manifest, entries))
+    {
+      StorageUtils.deleteDirectoryRecursive(backupFolder);
+      return LocalBackupManager.ErrorCode.FILE_ERROR;
+    }
+
+    Logger.i(TAG, "Backup of " + entries.size() + " files saved to " + backupFolder.getUri() + ", hashed: " + hashed
+                      + ", copied: " + copied);
+    return null;
+  }
+
+  /**
+   * Deletes the objects which are not referenced by the manifests of the remaining backups.
+   */
+  @WorkerThread
+  void collectGarbage()
+  {
+    final DocumentFile objectsFolder = mParentFolder.findFile(OBJECTS_FOLDER);
+    if (objectsFolder == null)
+      return;
+
+    final Set<String> referenced = new HashSet<>();
+    for (DocumentFile backupFolder : getBackupFolders(mParentFolder))
+    {
+      final DocumentFile manifest = findManifest(backupFolder);
+      if (manifest == null)
+        continue;
+      try
+      {
+        for (Entry entry : readManifest(manifest))
+          referenced.add(entry.hash + OBJECT_EXTENSION);
+      }
+      catch (IOException e)
+      {
+        // Deleting objects of the unreadable manifest would break its backup.
+        Logger.e(TAG, "Failed to read manifest " + manifest.getUri(), e);
+        return;
+      }
+    }
+
+    for (DocumentFile object : objectsFolder.listFiles())
+    {
+      if (!referenced.contains(object.getName()))
+      {
+        Logger.i(TAG, "Delete unused backup object " + object.getName());
+        object.delete();
+      }
+    }
+  }
+
+  // Returns entries of the newest backup by the file names.
+  @NonNull
+  private Map<String, Entry> readLastManifest()
+  {
+    final Map<String, Entry> entries = new HashMap<>();
+    final DocumentFile[] backupFolders = getBackupFolders(mParentFolder);
+    Arrays.sort(backupFolders, Comparator.comparing(DocumentFile::getName).reversed());
+    for (DocumentFile backupFolder : backupFolders)
+    {
+      final DocumentFile manifest = findManifest(backupFolder);
+      if (manifest == null)
+        continue;
+      try
+      {
+        for (Entry entry : readManifest(manifest))
+          entries.put(entry.name, entry);
+        break;
+      }
+      catch (IOException e)
+      {
+        Logger.w(TAG, "Failed to read manifest " + manifest.getUri(), e);
+        entries.clear();
+      }
+    }
+    return entries;
+  }
+
+  @Nullable
+  private static DocumentFile findManifest(@NonNull DocumentFile backupFolder)
+  {
+    for (DocumentFile file : backupFolder.listFiles())
+    {
+      if (isManifest(file.getName()))
+        return file;
+    }
+    return null;
+  }
+
+  @NonNull
+  private List<Entry> readManifest(@NonNull DocumentFile manifest) throws IOException
+  {
+    final List<Entry> entries = new ArrayList<>();
+    try (InputStream in = mResolver.openInputStream(manifest.getUri()))
+    {
+      if (in == null)
+        throw new IOException("Failed to open " + manifest.getUri());
+      final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+      String line;
+      while ((line = reader.readLine()) != null)
+      {
+        if (line.isEmpty() || line.startsWith("#"))
+          continue;
+        final String[] fields = line.split("\t", 4);
+        if (fields.length != 4)
+          throw new IOException("Malformed line of " + manifest.getUri() + ": " + line);
+        try
+        {
+          entries.add(new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]));
+        }
+        catch (NumberFormatException e)
+        {
+          throw new IOException("Malformed line of " + manifest.getUri() + ": " + line, e);
+        }
+      }
+    }
+    return entries;
+  }
+
+  private boolean writeManifest(@NonNull DocumentFile manifest, @NonNull List<Entry> entries)
+  {
+    try (OutputStream out = mResolver.openOutputStream(manifest.getUri()))
+    {
+      if (out == null)
+      {
+        Logger.e(TAG, "Failed to open output stream for " + manifest.getUri());
+        return false;
+      }
+      final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+      writer.write(MANIFEST_HEADER + "\n");
+      for (Entry entry : entries)
+        writer.write(entry.hash + '\t' + entry.size + '\t' + entry.lastModified + '\t' + entry.name + '\n');
+      writer.flush();
+      return true;
+    }
+    catch (IOException e)
+    {
+      Logger.e(TAG, "Failed to write manifest " + manifest.getUri(), e);
+      return false;
+    }
+  }
+
+  @NonNull
+  private static String computeHash(@NonNull File file) throws IOException
+  {
+    final MessageDigest digest;
+    try
+    {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e)
+    {
+      throw new IOException(e);
+    }
+
+    try (InputStream in = new FileInputStream(file))
+    {
+      final byte[] buffer = new byte[BUFFER_SIZE];
+      int count;
+      while ((count = in.read(buffer)) != -1)
+        digest.update(buffer, 0, count);
+    }
+
+    final StringBuilder hash = new StringBuilder();
+    for (byte b : digest.digest())
+      hash.append(String.format(Locale.US, "%02x", b));
+    return hash.toString();
+  }
+}
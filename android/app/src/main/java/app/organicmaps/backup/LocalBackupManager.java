@@ -8,6 +8,7 @@ import static app.organicmaps.sdk.util.StorageUtils.deleteDirectoryRecursive;
 import android.app.Activity;
 import android.net.Uri;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.documentfile.provider.DocumentFile;
 import app.organicmaps.sdk.bookmarks.data.BookmarkCategory;
 import app.organicmaps.sdk.bookmarks.data.BookmarkManager;
@@ -48,6 +49,22 @@ public class LocalBackupManager implements BookmarkManager.BookmarksSharingListe
       listener.onBackupStarted();
   }
 
+  /**
+   * Saves only the categories changed since the previous backup, see {@link IncrementalBackup}.
+   */
+  public void doIncrementalBackup()
+  {
+    ThreadPool.getBackground().execute(() -> {
+      final ErrorCode errorCode = saveIncrementalBackup();
+      if (errorCode == null)
+        Logger.i(TAG, "Incremental backup was created and saved successfully");
+      UiThread.run(() -> notifyResult(errorCode));
+    });
+
+    if (listener != null)
+      listener.onBackupStarted();
+  }
+
   public void setListener(@NonNull Listener listener)
   {
     this.listener = listener;
@@ -58,7 +75,7 @@ public class LocalBackupManager implements BookmarkManager.BookmarksSharingListe
   {
     BookmarkManager.INSTANCE.removeSharingListener(this);
 
-    ThreadPool.getWorker().execute(() -> {
+    ThreadPool.getBackground().execute(() -> {
       ErrorCode errorCode = null;
       switch (result.getCode())
       {
@@ -97,18 +114,46 @@ public class LocalBackupManager implements BookmarkManager.BookmarksSharingListe
       }
 
       ErrorCode finalErrorCode = errorCode;
-      UiThread.run(() -> {
-        if (listener != null)
-        {
-          if (finalErrorCode == null)
-            listener.onBackupFinished();
-          else
-            listener.onBackupFailed(finalErrorCode);
-        }
-      });
+      UiThread.run(() -> notifyResult(finalErrorCode));
     });
   }
 
+  private void notifyResult(@Nullable ErrorCode errorCode)
+  {
+    if (listener != null)
+    {
+      if (errorCode == null)
+        listener.onBackupFinished();
+      else
+        listener.onBackupFailed(errorCode);
+    }
+  }
+
+  @Nullable
+  private ErrorCode saveIncrementalBackup()
+  {
+    try
+    {
+      DocumentFile parentFolder = DocumentFile.fromTreeUri(activity, Uri.parse(backupFolderPath));
+      if (parentFolder == null || !parentFolder.canWrite())
+      {
+        Logger.e(TAG, "Backup folder is not writable");
+        return ErrorCode.FILE_ERROR;
+      }
+
+      IncrementalBackup backup = new IncrementalBackup(activity, parentFolder);
+      ErrorCode errorCode = backup.run(LocalDateTime.now());
+      cleanOldBackups(parentFolder);
+      backup.collectGarbage();
+      return errorCode;
+    }
+    catch (Exception e)
+    {
+      Logger.e(TAG, "Failed to save incremental backup", e);
+      return ErrorCode.FILE_ERROR;
+    }
+  }
+
   private boolean saveBackup(@NonNull BookmarkSharingResult result)
   {
     boolean isSuccess = false;
@@ -136,6 +181,8 @@ public class LocalBackupManager implements BookmarkManager.BookmarksSharingListe
         }
       }
       cleanOldBackups(parentFolder);
+      if (parentFolder != null)
+        new IncrementalBackup(activity, parentFolder).collectGarbage();
     }
     catch (Exception e)
     {
@@ -96,6 +96,7 @@ public class PeriodicBackupRunner
       }
     });
 
-    backupManager.doBackup();
+    // Only the changed categories are saved, the unchanged ones are referenced from the previous backups.
+    backupManager.doIncrementalBackup();
   }
 }
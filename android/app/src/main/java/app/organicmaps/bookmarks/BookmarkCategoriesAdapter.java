@@ -12,6 +12,7 @@ import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 import app.organicmaps.R;
 import app.organicmaps.adapter.OnItemClickListener;
+import app.organicmaps.sdk.bookmarks.data.BookmarkCategoriesChanges;
 import app.organicmaps.sdk.bookmarks.data.BookmarkCategory;
 import app.organicmaps.sdk.bookmarks.data.BookmarkManager;
 import java.util.List;
@@ -185,6 +186,27 @@ public class BookmarkCategoriesAdapter extends BaseBookmarkCategoryAdapter<Recyc
     return TYPE_CATEGORY_ITEM;
   }
 
+  /**
+   * Updates the rows of the changed categories, the items must be the list which was changed.
+   */
+  void notifyCategoriesChanged(@NonNull BookmarkCategoriesChanges changes)
+  {
+    // The header and the buttons are hidden along with the last category.
+    if (getBookmarkCategories().isEmpty())
+    {
+      notifyDataSetChanged();
+      return;
+    }
+
+    // The header "Hide All" is located at first index, so addition is needed.
+    for (int position : changes.getRemovedPositions())
+      notifyItemRemoved(position + 1);
+    for (int position : changes.getUpdatedPositions())
+      notifyItemChanged(position + 1);
+    // Its state depends on the visibility of all the categories.
+    notifyItemChanged(HEADER_POSITION);
+  }
+
   private int toCategoryPosition(int adapterPosition)
   {
     int type = getItemViewType(adapterPosition);
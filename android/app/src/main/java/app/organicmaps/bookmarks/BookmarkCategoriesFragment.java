@@ -24,14 +24,16 @@ import app.organicmaps.R;
 import app.organicmaps.adapter.OnItemClickListener;
 import app.organicmaps.base.BaseMwmRecyclerFragment;
 import app.organicmaps.dialog.EditTextDialogFragment;
+import app.organicmaps.sdk.bookmarks.data.BookmarkCategoriesChanges;
 import app.organicmaps.sdk.bookmarks.data.BookmarkCategory;
 import app.organicmaps.sdk.bookmarks.data.BookmarkManager;
 import app.organicmaps.sdk.bookmarks.data.BookmarkSharingResult;
+import app.organicmaps.sdk.bookmarks.data.BookmarksImport;
 import app.organicmaps.sdk.bookmarks.data.DataChangedListener;
 import app.organicmaps.sdk.bookmarks.data.KmlFileType;
 import app.organicmaps.sdk.util.StorageUtils;
+import app.organicmaps.sdk.util.concurrency.CancellationToken;
 import app.organicmaps.sdk.util.concurrency.ThreadPool;
-import app.organicmaps.sdk.util.concurrency.UiThread;
 import app.organicmaps.sdk.util.log.Logger;
 import app.organicmaps.util.SharingUtils;
 import app.organicmaps.util.Utils;
@@ -43,7 +45,6 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class BookmarkCategoriesFragment extends BaseMwmRecyclerFragment<BookmarkCategoriesAdapter>
     implements BookmarkManager.BookmarksLoadingListener, CategoryListCallback, OnItemClickListener<BookmarkCategory>,
@@ -121,7 +122,19 @@ public class BookmarkCategoriesFragment extends BaseMwmRecyclerFragment<Bookmark
     rw.setNestedScrollingEnabled(false);
     RecyclerView.ItemDecoration decor = new DividerItemDecorationWithPadding(requireContext());
     rw.addItemDecoration(decor);
-    mCategoriesAdapterObserver = this::onCategoriesChanged;
+    mCategoriesAdapterObserver = new DataChangedListener() {
+      @Override
+      public void onChanged()
+      {
+        onCategoriesChanged();
+      }
+
+      @Override
+      public void onChanged(@NonNull BookmarkCategoriesChanges changes)
+      {
+        onCategoriesChanged(changes);
+      }
+    };
     BookmarkManager.INSTANCE.addCategoriesUpdatesListener(mCategoriesAdapterObserver);
 
     shareLauncher = SharingUtils.RegisterLauncher(this);
@@ -315,28 +328,50 @@ public class BookmarkCategoriesFragment extends BaseMwmRecyclerFragment<Bookmark
     final Uri rootUri = data.getData();
     final ProgressDialog dialog = new ProgressDialog(context, R.style.MwmTheme_ProgressDialog);
     dialog.setMessage(getString(R.string.wait_several_minutes));
-    dialog.setProgressStyle(ProgressDialog.STYLE_SPINNER);
+    dialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
     dialog.setIndeterminate(true);
-    dialog.setCancelable(false);
+    dialog.setProgressNumberFormat("%1d/%2d");
+    dialog.setCanceledOnTouchOutside(false);
     dialog.show();
     Logger.d(TAG, "Importing bookmarks from " + rootUri);
     MwmApplication app = MwmApplication.from(context);
     final File tempDir = new File(StorageUtils.getTempPath(app));
     final ContentResolver resolver = context.getContentResolver();
-    ThreadPool.getStorage().execute(() -> {
-      AtomicInteger found = new AtomicInteger(0);
-      StorageUtils.listContentProviderFilesRecursively(resolver, rootUri, uri -> {
-        if (BookmarkManager.INSTANCE.importBookmarksFile(resolver, uri, tempDir))
-          found.incrementAndGet();
-      });
-      UiThread.run(() -> {
+    final BookmarksImport.Listener listener = new BookmarksImport.Listener() {
+      @Override
+      public void onImportProgress(int filesRead, int filesTotal, long bytesRead, long bytesTotal)
+      {
+        if (!dialog.isShowing())
+          return;
+        dialog.setIndeterminate(false);
+        dialog.setMax(filesTotal);
+        dialog.setProgress(filesRead);
+      }
+
+      @Override
+      public void onImportFinished(int filesImported, boolean isCancelled)
+      {
         if (dialog.isShowing())
           dialog.dismiss();
-        int found_val = found.get();
+        if (isCancelled)
+          return;
         String message =
-            context.getResources().getQuantityString(R.plurals.bookmarks_detect_message, found_val, found_val);
-        Toast.makeText(requireContext(), message, Toast.LENGTH_LONG).show();
-      });
+            context.getResources().getQuantityString(R.plurals.bookmarks_detect_message, filesImported, filesImported);
+        Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+      }
+    };
+    // The import can be cancelled while the files are listed too.
+    final CancellationToken token = new CancellationToken();
+    dialog.setOnCancelListener(d -> token.cancel());
+    ThreadPool.getStorage().execute(() -> {
+      final List<Uri> uris = new ArrayList<>();
+      StorageUtils.listContentProviderFilesRecursively(resolver, rootUri, uris::add);
+      if (token.isCancelled())
+      {
+        Logger.i(TAG, "Import of bookmarks from " + rootUri + " is cancelled");
+        return;
+      }
+      new BookmarksImport(resolver, uris, tempDir, listener, token).run();
     });
   }
 
@@ -376,4 +411,14 @@ public class BookmarkCategoriesFragment extends BaseMwmRecyclerFragment<Bookmark
   {
     getAdapter().setItems(BookmarkManager.INSTANCE.getCategories());
   }
+
+  private void onCategoriesChanged(@NonNull BookmarkCategoriesChanges changes)
+  {
+    final List<BookmarkCategory> categories = BookmarkManager.INSTANCE.getCategories();
+    // Positions are valid for the cached list only, the adapter could show a list got from the core.
+    if (getAdapter().getBookmarkCategories() != categories)
+      getAdapter().setItems(categories);
+    else
+      getAdapter().notifyCategoriesChanged(changes);
+  }
 }
@@ -11,6 +11,7 @@ import app.organicmaps.R;
 import app.organicmaps.sdk.bookmarks.data.BookmarkCategory;
 import app.organicmaps.sdk.bookmarks.data.BookmarkInfo;
 import app.organicmaps.sdk.bookmarks.data.BookmarkManager;
+import app.organicmaps.sdk.bookmarks.data.BookmarkPage;
 import app.organicmaps.sdk.bookmarks.data.IconClickListener;
 import app.organicmaps.sdk.bookmarks.data.SortedBlock;
 import app.organicmaps.sdk.content.DataSource;
@@ -52,12 +53,38 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
   {
     @NonNull
     private final DataSource<BookmarkCategory> mDataSource;
+    @NonNull
+    private final BookmarkPageCache mPages = new BookmarkPageCache();
 
     SectionsDataSource(@NonNull DataSource<BookmarkCategory> dataSource)
     {
       mDataSource = dataSource;
     }
 
+    /**
+     * Returns the page with the bookmark at the position, see {@link BookmarkPageCache#getIndexInPage}.
+     */
+    @NonNull
+    BookmarkPage getBookmarksPage(@NonNull SectionPosition pos)
+    {
+      return mPages.get(getCategory().getId(), pos, this::loadBookmarksPage);
+    }
+
+    void invalidatePages()
+    {
+      mPages.invalidate();
+    }
+
+    @NonNull
+    static BookmarkPage loadBookmarksPage(@NonNull List<Long> bookmarkIds, int offset, int count)
+    {
+      final int end = Math.min(offset + count, bookmarkIds.size());
+      final long[] ids = new long[Math.max(end - offset, 0)];
+      for (int i = 0; i < ids.length; ++i)
+        ids[i] = bookmarkIds.get(offset + i);
+      return BookmarkManager.INSTANCE.getBookmarksByIds(ids);
+    }
+
     public BookmarkCategory getCategory()
     {
       return mDataSource.getData();
@@ -81,6 +108,8 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
     public abstract int getItemsCount(int sectionIndex);
     public abstract int getItemsType(int sectionIndex);
     public abstract long getBookmarkId(@NonNull SectionPosition pos);
+    @NonNull
+    abstract BookmarkPage loadBookmarksPage(int sectionIndex, int offset, int count);
     public abstract long getTrackId(@NonNull SectionPosition pos);
     public abstract void onDelete(@NonNull SectionPosition pos);
   }
@@ -169,6 +198,7 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
     {
       // we must invalidate datasource before calculate sections
       invalidate();
+      invalidatePages();
 
       calculateSections();
     }
@@ -176,7 +206,14 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
     @Override
     public long getBookmarkId(@NonNull SectionPosition pos)
     {
-      return BookmarkManager.INSTANCE.getBookmarkIdByPosition(getCategory().getId(), pos.getItemIndex());
+      return getBookmarksPage(pos).getBookmarkId(BookmarkPageCache.getIndexInPage(pos));
+    }
+
+    @NonNull
+    @Override
+    BookmarkPage loadBookmarksPage(int sectionIndex, int offset, int count)
+    {
+      return BookmarkManager.INSTANCE.getBookmarksPage(getCategory().getId(), offset, count);
     }
 
     @Override
@@ -237,6 +274,7 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
     public void onDelete(@NonNull SectionPosition pos)
     {
       mSearchResults.remove(pos.getItemIndex());
+      invalidatePages();
     }
 
     @Override
@@ -245,6 +283,13 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
       return mSearchResults.get(pos.getItemIndex());
     }
 
+    @NonNull
+    @Override
+    BookmarkPage loadBookmarksPage(int sectionIndex, int offset, int count)
+    {
+      return loadBookmarksPage(mSearchResults, offset, count);
+    }
+
     @Override
     public long getTrackId(@NonNull SectionPosition pos)
     {
@@ -330,6 +375,7 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
       if (isDescriptionSection(pos.getSectionIndex()))
         throw new IllegalArgumentException("Delete failed. Invalid section index.");
 
+      invalidatePages();
       int blockIndex = pos.getSectionIndex() - (hasDescription() ? 1 : 0);
       SortedBlock block = mSortedBlocks.get(blockIndex);
       if (block.isBookmarksBlock())
@@ -354,6 +400,13 @@ public class BookmarkListAdapter extends RecyclerView.Adapter<Holders.BaseBookma
     {
       return getSortedBlock(pos.getSectionIndex()).getTrackIds().get(pos.getItemIndex());
     }
+
+    @NonNull
+    @Override
+    BookmarkPage loadBookmarksPage(int sectionIndex, int offset, int count)
+    {
+      return loadBookmarksPage(getSortedBlock(sectionIndex).getBookmarkIds(), offset, count);
+    }
   }
 
   BookmarkListAdapter(@NonNull DataSource<BookmarkCategory> dataSource)
@@ -0,0 +1,62 @@
+package app.organicmaps.bookmarks;
+
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import app.organicmaps.sdk.bookmarks.data.BookmarkManager;
+import app.organicmaps.sdk.bookmarks.data.BookmarkPage;
+
+/**
+ * Pages of the bookmarks around the rows shown in the list, so binding a row doesn't call the core.
+ * Pages are dropped when the category or any bookmark is changed.
+ */
+class BookmarkPageCache
+{
+  interface Loader
+  {
+    @NonNull
+    BookmarkPage load(int sectionIndex, int offset, int count);
+  }
+
+  static final int PAGE_SIZE = 100;
+  private static final int MAX_PAGES = 10;
+
+  // Keys are section index and page index.
+  private final LruCache<Long, BookmarkPage> mPages = new LruCache<>(MAX_PAGES);
+  private long mCategoryId = -1;
+  private int mVersion = -1;
+
+  @NonNull
+  BookmarkPage get(long categoryId, @NonNull SectionPosition pos, @NonNull Loader loader)
+  {
+    final int version = BookmarkManager.INSTANCE.getBookmarksVersion();
+    if (categoryId != mCategoryId || version != mVersion)
+    {
+      invalidate();
+      mCategoryId = categoryId;
+      mVersion = version;
+    }
+
+    final int pageIndex = pos.getItemIndex() / PAGE_SIZE;
+    final long key = ((long) pos.getSectionIndex() << 32) | pageIndex;
+    BookmarkPage page = mPages.get(key);
+    if (page == null)
+    {
+      page = loader.load(pos.getSectionIndex(), pageIndex * PAGE_SIZE, PAGE_SIZE);
+      mPages.put(key, page);
+    }
+    return page;
+  }
+
+  /**
+   * @return index of the bookmark at the position in its page.
+   */
+  static int getIndexInPage(@NonNull SectionPosition pos)
+  {
+    return pos.getItemIndex() % PAGE_SIZE;
+  }
+
+  void invalidate()
+  {
+    mPages.evictAll();
+  }
+}
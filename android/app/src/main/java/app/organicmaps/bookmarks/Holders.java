@@ -14,8 +14,9 @@ import app.organicmaps.MwmApplication;
 import app.organicmaps.R;
 import app.organicmaps.adapter.OnItemClickListener;
 import app.organicmaps.sdk.bookmarks.data.BookmarkCategory;
-import app.organicmaps.sdk.bookmarks.data.BookmarkInfo;
 import app.organicmaps.sdk.bookmarks.data.BookmarkManager;
+import app.organicmaps.sdk.bookmarks.data.BookmarkPage;
+import app.organicmaps.sdk.bookmarks.data.Icon;
 import app.organicmaps.sdk.bookmarks.data.IconClickListener;
 import app.organicmaps.sdk.bookmarks.data.Track;
 import app.organicmaps.util.Graphics;
@@ -345,26 +346,26 @@ public class Holders
     @Override
     void bind(@NonNull SectionPosition position, @NonNull BookmarkListAdapter.SectionsDataSource sectionsDataSource)
     {
-      final long bookmarkId = sectionsDataSource.getBookmarkId(position);
-      BookmarkInfo bookmark = new BookmarkInfo(sectionsDataSource.getCategory().getId(), bookmarkId);
-      mName.setText(bookmark.getName());
+      final BookmarkPage page = sectionsDataSource.getBookmarksPage(position);
+      final int index = BookmarkPageCache.getIndexInPage(position);
+      mName.setText(page.getName(index));
       final Location loc = MwmApplication.from(mIcon.getContext()).getLocationHelper().getSavedLocation();
 
       String distanceValue =
           loc == null
               ? ""
-              : bookmark.getDistance(loc.getLatitude(), loc.getLongitude(), 0.0).toString(mDistance.getContext());
+              : page.getDistance(index, loc.getLatitude(), loc.getLongitude()).toString(mDistance.getContext());
+      final String featureType = page.getFeatureType(index);
       String separator = "";
-      if (!distanceValue.isEmpty() && !bookmark.getFeatureType().isEmpty())
+      if (!distanceValue.isEmpty() && !featureType.isEmpty())
         separator = " • ";
-      String subtitleValue = distanceValue.concat(separator).concat(bookmark.getFeatureType());
+      String subtitleValue = distanceValue.concat(separator).concat(featureType);
       mDistance.setText(subtitleValue);
       UiUtils.hideIf(TextUtils.isEmpty(subtitleValue), mDistance);
 
-      mIcon.setImageResource(bookmark.getIcon().getResId());
-      Drawable circle =
-          Graphics.drawCircleAndImage(bookmark.getIcon().argb(), R.dimen.track_circle_size,
-                                      bookmark.getIcon().getResId(), R.dimen.bookmark_icon_size, mIcon.getContext());
+      final Icon icon = page.getIcon(index);
+      Drawable circle = Graphics.drawCircleAndImage(icon.argb(), R.dimen.track_circle_size, icon.getResId(),
+                                                    R.dimen.bookmark_icon_size, mIcon.getContext());
       mIcon.setImageDrawable(circle);
     }
   }
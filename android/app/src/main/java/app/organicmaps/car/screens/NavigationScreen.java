@@ -30,8 +30,8 @@ import app.organicmaps.car.util.UiHelpers;
 import app.organicmaps.routing.NavigationService;
 import app.organicmaps.sdk.Framework;
 import app.organicmaps.sdk.location.LocationHelper;
-import app.organicmaps.sdk.location.LocationListener;
 import app.organicmaps.sdk.routing.JunctionInfo;
+import app.organicmaps.sdk.routing.RouteProgress;
 import app.organicmaps.sdk.routing.RoutingController;
 import app.organicmaps.sdk.routing.RoutingInfo;
 import app.organicmaps.sdk.sound.TtsPlayer;
@@ -51,7 +51,7 @@ public class NavigationScreen extends BaseMapScreen implements RoutingController
   @NonNull
   private final NavigationManager mNavigationManager;
   @NonNull
-  private final LocationListener mLocationListener = (unused) -> updateTrip();
+  private final RouteProgress.Listener mRouteProgressListener = (snapshot) -> updateTrip(snapshot.info);
 
   @NonNull
   private Trip mTrip = new Trip.Builder().setLoading(true).build();
@@ -88,7 +88,7 @@ public class NavigationScreen extends BaseMapScreen implements RoutingController
   @Override
   public void onStopNavigation()
   {
-    MwmApplication.from(getCarContext()).getLocationHelper().removeListener(mLocationListener);
+    RouteProgress.get().removeListener(mRouteProgressListener);
     mNavigationCancelled = true;
     mRoutingController.cancel();
   }
@@ -134,11 +134,12 @@ public class NavigationScreen extends BaseMapScreen implements RoutingController
     mNavigationManager.setNavigationManagerCallback(this);
     mNavigationManager.navigationStarted();
 
-    MwmApplication.from(getCarContext()).getLocationHelper().addListener(mLocationListener);
+    RouteProgress.get().addListener(mRouteProgressListener);
     if (LocationUtils.checkFineLocationPermission(getCarContext()))
       NavigationService.startForegroundService(getCarContext(),
                                                CarAppService.getCarNotificationExtender(getCarContext()));
-    updateTrip();
+    final RouteProgress.Snapshot snapshot = RouteProgress.get().getLastSnapshot();
+    updateTrip(snapshot != null ? snapshot.info : null);
   }
 
   @Override
@@ -152,7 +153,7 @@ public class NavigationScreen extends BaseMapScreen implements RoutingController
   public void onDestroy(@NonNull LifecycleOwner owner)
   {
     NavigationService.stopService(getCarContext());
-    MwmApplication.from(getCarContext()).getLocationHelper().removeListener(mLocationListener);
+    RouteProgress.get().removeListener(mRouteProgressListener);
 
     if (mRoutingController.isNavigating())
       mRoutingController.onSaveState();
@@ -241,9 +242,8 @@ public class NavigationScreen extends BaseMapScreen implements RoutingController
     return ttsActionBuilder.build();
   }
 
-  private void updateTrip()
+  private void updateTrip(@Nullable RoutingInfo info)
   {
-    final RoutingInfo info = Framework.nativeGetRouteFollowingInfo();
     mTrip = RoutingUtils.createTrip(getCarContext(), info, RoutingController.get().getEndPoint());
     mNavigationManager.updateTrip(mTrip);
     invalidate();
@@ -21,6 +21,7 @@ import app.organicmaps.car.util.RoutingHelpers;
 import app.organicmaps.sdk.bookmarks.data.BookmarkCategory;
 import app.organicmaps.sdk.bookmarks.data.BookmarkInfo;
 import app.organicmaps.sdk.bookmarks.data.BookmarkManager;
+import app.organicmaps.sdk.bookmarks.data.BookmarkPage;
 import app.organicmaps.sdk.bookmarks.data.Icon;
 import app.organicmaps.sdk.bookmarks.data.SortedBlock;
 import app.organicmaps.sdk.util.Distance;
@@ -80,9 +81,10 @@ class BookmarksLoader implements BookmarkManager.BookmarksSortingListener
       if (sortBookmarks())
         return;
 
-      final List<Long> bookmarkIds = new ArrayList<>();
-      for (int i = 0; i < mBookmarksListSize; ++i)
-        bookmarkIds.add(BookmarkManager.INSTANCE.getBookmarkIdByPosition(mBookmarkCategoryId, i));
+      final BookmarkPage page = BookmarkManager.INSTANCE.getBookmarksPage(mBookmarkCategoryId, 0, mBookmarksListSize);
+      final List<Long> bookmarkIds = new ArrayList<>(page.size());
+      for (int i = 0; i < page.size(); ++i)
+        bookmarkIds.add(page.getBookmarkId(i));
       loadBookmarks(bookmarkIds);
     });
   }
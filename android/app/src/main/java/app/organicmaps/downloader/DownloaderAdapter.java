@@ -33,8 +33,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
 class DownloaderAdapter extends RecyclerView.Adapter<DownloaderAdapter.ViewHolderWrapper>
@@ -174,28 +176,34 @@ class DownloaderAdapter extends RecyclerView.Adapter<DownloaderAdapter.ViewHolde
   }
 
   private final MapManager.StorageCallback mStorageCallback = new MapManager.StorageCallback() {
-    private void updateItem(String countryId)
+    // Updates the items of the countries, then rebinds the visible ones in a single pass.
+    private void updateItems(Set<String> countryIds)
     {
-      List<CountryItem> lst = mCountryIndex.get(countryId);
-      if (lst == null)
-        return;
-
-      for (CountryItem ci : lst)
+      boolean updated = false;
+      for (String countryId : countryIds)
       {
-        ci.update();
+        List<CountryItem> lst = mCountryIndex.get(countryId);
+        if (lst == null)
+          continue;
+
+        for (CountryItem ci : lst)
+          ci.update();
+        updated = true;
+      }
+      if (!updated)
+        return;
 
-        LinearLayoutManager lm = (LinearLayoutManager) mRecycler.getLayoutManager();
-        int first = lm.findFirstVisibleItemPosition();
-        int last = lm.findLastVisibleItemPosition();
-        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION)
-          return;
+      LinearLayoutManager lm = (LinearLayoutManager) mRecycler.getLayoutManager();
+      int first = lm.findFirstVisibleItemPosition();
+      int last = lm.findLastVisibleItemPosition();
+      if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION)
+        return;
 
-        for (int i = first; i <= last; i++)
-        {
-          ViewHolderWrapper vh = (ViewHolderWrapper) mRecycler.findViewHolderForAdapterPosition(i);
-          if (vh != null && vh.mKind == TYPE_COUNTRY && ((CountryItem) vh.mHolder.mItem).id.equals(countryId))
-            vh.mHolder.rebind();
-        }
+      for (int i = first; i <= last; i++)
+      {
+        ViewHolderWrapper vh = (ViewHolderWrapper) mRecycler.findViewHolderForAdapterPosition(i);
+        if (vh != null && vh.mKind == TYPE_COUNTRY && countryIds.contains(((CountryItem) vh.mHolder.mItem).id))
+          vh.mHolder.rebind();
       }
     }
 
@@ -211,16 +219,25 @@ class DownloaderAdapter extends RecyclerView.Adapter<DownloaderAdapter.ViewHolde
         }
       }
 
+      final Set<String> countryIds = new HashSet<>();
       for (MapManager.StorageCallbackData item : data)
-      {
-        updateItem(item.countryId);
-      }
+        countryIds.add(item.countryId);
+      updateItems(countryIds);
     }
 
     @Override
     public void onProgress(String countryId, long localSize, long remoteSize)
     {
-      updateItem(countryId);
+      updateItems(Collections.singleton(countryId));
+    }
+
+    @Override
+    public void onProgressBatch(@NonNull List<MapManager.ProgressData> batch)
+    {
+      final Set<String> countryIds = new HashSet<>();
+      for (MapManager.ProgressData progress : batch)
+        countryIds.add(progress.countryId());
+      updateItems(countryIds);
     }
   };
 
@@ -777,12 +794,12 @@ class DownloaderAdapter extends RecyclerView.Adapter<DownloaderAdapter.ViewHolde
 
   void attach()
   {
-    mListenerSlot = MapManager.nativeSubscribe(mStorageCallback);
+    mListenerSlot = MapManager.subscribeBatched(mStorageCallback);
   }
 
   void detach()
   {
-    MapManager.nativeUnsubscribe(mListenerSlot);
+    MapManager.unsubscribe(mListenerSlot);
   }
 
   boolean isSearchResultsMode()
@@ -17,6 +17,7 @@ import app.organicmaps.base.BaseMwmRecyclerFragment;
 import app.organicmaps.sdk.downloader.CountryItem;
 import app.organicmaps.sdk.downloader.MapManager;
 import app.organicmaps.sdk.search.MapSearchListener;
+import app.organicmaps.sdk.search.MapSearchResults;
 import app.organicmaps.sdk.search.SearchEngine;
 import app.organicmaps.util.bottomsheet.MenuBottomSheetFragment;
 import app.organicmaps.util.bottomsheet.MenuBottomSheetItem;
@@ -54,16 +55,17 @@ public class DownloaderFragment
   private final MapSearchListener mSearchListener = new MapSearchListener() {
     @Keep
     @Override
-    public void onMapSearchResults(@NonNull Result[] results, long timestamp, boolean isLast)
+    public void onMapSearchResults(@NonNull MapSearchResults results, long timestamp, boolean isLast)
     {
       if (!mSearchRunning || timestamp != mCurrentSearch)
         return;
 
-      List<CountryItem> rs = new ArrayList<>();
-      for (Result result : results)
+      final int size = results.size();
+      List<CountryItem> rs = new ArrayList<>(size);
+      for (int i = 0; i < size; i++)
       {
-        CountryItem item = CountryItem.fill(result.countryId());
-        item.searchResultName = result.matchedString();
+        CountryItem item = CountryItem.fill(results.getCountryId(i));
+        item.searchResultName = results.getMatchedString(i);
         rs.add(item);
       }
 
@@ -238,7 +238,7 @@ public class OnmapDownloader implements MwmActivity.LeftAnimationTrackListener
   {
     if (mStorageSubscriptionSlot > 0)
     {
-      MapManager.nativeUnsubscribe(mStorageSubscriptionSlot);
+      MapManager.unsubscribe(mStorageSubscriptionSlot);
       mStorageSubscriptionSlot = 0;
 
       MapManager.nativeUnsubscribeOnCountryChanged();
@@ -249,7 +249,7 @@ public class OnmapDownloader implements MwmActivity.LeftAnimationTrackListener
   {
     if (mStorageSubscriptionSlot == 0)
     {
-      mStorageSubscriptionSlot = MapManager.nativeSubscribe(mStorageCallback);
+      mStorageSubscriptionSlot = MapManager.subscribeBatched(mStorageCallback);
 
       MapManager.nativeSubscribeOnCountryChanged(mCountryChangedListener);
     }
@@ -16,10 +16,10 @@ import androidx.lifecycle.ViewModelProvider;
 import app.organicmaps.MwmApplication;
 import app.organicmaps.R;
 import app.organicmaps.maplayer.MapButtonsViewModel;
-import app.organicmaps.sdk.Framework;
 import app.organicmaps.sdk.Router;
 import app.organicmaps.sdk.maplayer.traffic.TrafficManager;
 import app.organicmaps.sdk.routing.CarDirection;
+import app.organicmaps.sdk.routing.RouteProgress;
 import app.organicmaps.sdk.routing.RoutingController;
 import app.organicmaps.sdk.routing.RoutingInfo;
 import app.organicmaps.sdk.util.StringUtils;
@@ -147,7 +147,10 @@ public class NavigationController implements TrafficManager.TrafficCallback, Nav
     if (!RoutingController.get().isNavigating())
       return;
 
-    update(Framework.nativeGetRouteFollowingInfo());
+    // Called on each compass update, the route following info is the same until the next location fix.
+    final RouteProgress.Snapshot snapshot = RouteProgress.get().getLastSnapshot();
+    if (snapshot != null)
+      update(snapshot.info);
   }
 
   public void update(@Nullable RoutingInfo info)
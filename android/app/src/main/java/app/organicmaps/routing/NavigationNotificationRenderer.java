@@ -0,0 +1,140 @@
+package app.organicmaps.routing;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.content.res.AppCompatResources;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import app.organicmaps.sdk.routing.CarDirection;
+import app.organicmaps.sdk.routing.RoutingInfo;
+import app.organicmaps.sdk.util.log.Logger;
+import app.organicmaps.util.Graphics;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Posts the navigation notification only when its visible content is changed. The turn icons are rasterized
+ * once per direction. Changes of the distance only are posted at most once per {@link #DISTANCE_INTERVAL_MS},
+ * while a new turn or street is posted at once.
+ */
+class NavigationNotificationRenderer
+{
+  private static final String TAG = NavigationNotificationRenderer.class.getSimpleName();
+
+  private static final long DISTANCE_INTERVAL_MS = 3000;
+
+  @NonNull
+  private final Context mContext;
+  private final int mNotificationId;
+  // Zero if the icons are not tinted.
+  @ColorInt
+  private final int mTintColor;
+  @NonNull
+  private final Map<CarDirection, Bitmap> mTurnBitmaps = new EnumMap<>(CarDirection.class);
+
+  // Content of the last posted notification.
+  @Nullable
+  private String mTitle;
+  @Nullable
+  private String mText;
+  @Nullable
+  private CarDirection mDirection;
+  @Nullable
+  private NotificationCompat.Extender mExtender;
+  private long mPostedAt;
+
+  private int mPosted;
+  private int mSkippedUnchanged;
+  private int mSkippedThrottled;
+
+  NavigationNotificationRenderer(@NonNull Context context, int notificationId, @ColorInt int tintColor)
+  {
+    mContext = context;
+    mNotificationId = notificationId;
+    mTintColor = tintColor;
+  }
+
+  void render(@NonNull NotificationCompat.Builder builder, @NonNull RoutingInfo info,
+              @Nullable NotificationCompat.Extender extender)
+  {
+    final String title = info.distToTurn.toString(mContext);
+    final String text = info.nextStreet;
+    final CarDirection direction = info.carDirection;
+
+    final long now = SystemClock.elapsedRealtime();
+    final boolean isGuidanceChanged =
+        !TextUtils.equals(text, mText) || direction != mDirection || extender != mExtender;
+    if (!isGuidanceChanged)
+    {
+      if (TextUtils.equals(title, mTitle))
+      {
+        ++mSkippedUnchanged;
+        return;
+      }
+      if (now - mPostedAt < DISTANCE_INTERVAL_MS)
+      {
+        ++mSkippedThrottled;
+        return;
+      }
+    }
+
+    builder.setContentTitle(title).setContentText(text);
+    final Bitmap bitmap = getTurnBitmap(direction);
+    if (bitmap != null)
+      builder.setLargeIcon(bitmap);
+    if (extender != null)
+      builder.extend(extender);
+
+    // The notification object must be re-created for every update.
+    NotificationManagerCompat.from(mContext).notify(mNotificationId, builder.build());
+    ++mPosted;
+    mPostedAt = now;
+    mTitle = title;
+    mText = text;
+    mDirection = direction;
+    mExtender = extender;
+  }
+
+  /**
+   * Releases the cached icons and logs the counters.
+   */
+  void release()
+  {
+    Logger.i(TAG, getStats());
+    mTurnBitmaps.clear();
+    mTitle = null;
+    mText = null;
+    mDirection = null;
+    mExtender = null;
+  }
+
+  @NonNull
+  private String getStats()
+  {
+    return String.format(Locale.US, "posted=%d skipped unchanged=%d throttled=%d", mPosted, mSkippedUnchanged,
+                         mSkippedThrottled);
+  }
+
+  @Nullable
+  private Bitmap getTurnBitmap(@NonNull CarDirection direction)
+  {
+    Bitmap bitmap = mTurnBitmaps.get(direction);
+    if (bitmap != null)
+      return bitmap;
+
+    final Drawable drawable = AppCompatResources.getDrawable(mContext, direction.getTurnRes());
+    if (drawable == null)
+      return null;
+    bitmap = mTintColor == 0 ? Graphics.drawableToBitmap(drawable)
+                             : Graphics.drawableToBitmapWithTint(drawable, mTintColor);
+    mTurnBitmaps.put(direction, bitmap);
+    return bitmap;
+  }
+}
@@ -1,6 +1,5 @@
 package app.organicmaps.routing;
 
-import static android.Manifest.permission.ACCESS_COARSE_LOCATION;
 import static android.Manifest.permission.ACCESS_FINE_LOCATION;
 import static android.Manifest.permission.POST_NOTIFICATIONS;
 import static android.content.pm.PackageManager.PERMISSION_GRANTED;
@@ -14,15 +13,11 @@ import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ServiceInfo;
-import android.graphics.Bitmap;
-import android.graphics.drawable.Drawable;
-import android.location.Location;
 import android.os.Build;
 import android.os.IBinder;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresPermission;
-import androidx.appcompat.content.res.AppCompatResources;
 import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationChannelCompat;
 import androidx.core.app.NotificationCompat;
@@ -34,7 +29,7 @@ import app.organicmaps.MwmApplication;
 import app.organicmaps.R;
 import app.organicmaps.sdk.Framework;
 import app.organicmaps.sdk.location.LocationHelper;
-import app.organicmaps.sdk.location.LocationListener;
+import app.organicmaps.sdk.routing.RouteProgress;
 import app.organicmaps.sdk.routing.RoutingController;
 import app.organicmaps.sdk.routing.RoutingInfo;
 import app.organicmaps.sdk.sound.MediaPlayerWrapper;
@@ -42,9 +37,8 @@ import app.organicmaps.sdk.sound.TtsPlayer;
 import app.organicmaps.sdk.util.Config;
 import app.organicmaps.sdk.util.LocationUtils;
 import app.organicmaps.sdk.util.log.Logger;
-import app.organicmaps.util.Graphics;
 
-public class NavigationService extends Service implements LocationListener
+public class NavigationService extends Service implements RouteProgress.Listener
 {
   private static final String TAG = NavigationService.class.getSimpleName();
   private static final String STOP_NAVIGATION = "STOP_NAVIGATION";
@@ -55,6 +49,9 @@ public class NavigationService extends Service implements LocationListener
   @SuppressWarnings("NotNullFieldNotInitialized")
   @NonNull
   private MediaPlayerWrapper mPlayer;
+  @SuppressWarnings("NotNullFieldNotInitialized")
+  @NonNull
+  private NavigationNotificationRenderer mNotificationRenderer;
 
   // Destroyed in onDestroy()
   @SuppressLint("StaticFieldLeak")
@@ -170,6 +167,8 @@ public class NavigationService extends Service implements LocationListener
     Logger.i(TAG);
 
     mPlayer = new MediaPlayerWrapper(getApplicationContext());
+    final int tintColor = isColorizedSupported() ? 0 : ContextCompat.getColor(this, R.color.base_accent);
+    mNotificationRenderer = new NavigationNotificationRenderer(this, NOTIFICATION_ID, tintColor);
   }
 
   @Override
@@ -179,12 +178,13 @@ public class NavigationService extends Service implements LocationListener
 
     mNotificationBuilder = null;
     mCarNotificationExtender = null;
-    MwmApplication.from(this).getLocationHelper().removeListener(this);
+    RouteProgress.get().removeListener(this);
     TtsPlayer.INSTANCE.stop();
 
     // The notification is cancelled automatically by the system.
 
     mPlayer.release();
+    mNotificationRenderer.release();
   }
 
   @Override
@@ -249,8 +249,8 @@ public class NavigationService extends Service implements LocationListener
 
     final LocationHelper locationHelper = MwmApplication.from(this).getLocationHelper();
 
-    // Subscribe to location updates. This call is idempotent.
-    locationHelper.addListener(this);
+    // Subscribe to the route progress, it is published on location updates. This call is idempotent.
+    RouteProgress.get().addListener(this);
 
     // Restart the location with more frequent refresh interval for navigation.
     locationHelper.restartWithNewMode();
@@ -267,8 +267,7 @@ public class NavigationService extends Service implements LocationListener
   }
 
   @Override
-  @RequiresPermission(anyOf = {ACCESS_COARSE_LOCATION, ACCESS_FINE_LOCATION})
-  public void onLocationUpdated(@NonNull Location location)
+  public void onRouteProgress(@NonNull RouteProgress.Snapshot snapshot)
   {
     // Ignore any pending notifications when service is being stopping.
     final RoutingController routingController = RoutingController.get();
@@ -280,12 +279,9 @@ public class NavigationService extends Service implements LocationListener
     if (turnNotifications != null)
       TtsPlayer.INSTANCE.playTurnNotifications(turnNotifications);
 
-    // TODO: consider to create callback mechanism to transfer 'ROUTE_IS_FINISHED' event from
-    // the core to the platform code (https://github.com/organicmaps/organicmaps/issues/3589),
-    // because calling the native method 'nativeIsRouteFinished'
-    // too often can result in poor UI performance.
+    // The end of the route is checked once per location update by RouteProgress.
     // This check should be done after playTurnNotifications() to play the last turn notification.
-    if (Framework.nativeIsRouteFinished())
+    if (snapshot.isRouteFinished)
     {
       routingController.cancel();
       MwmApplication.from(this).getLocationHelper().restartWithNewMode();
@@ -293,7 +289,7 @@ public class NavigationService extends Service implements LocationListener
       return;
     }
 
-    final RoutingInfo routingInfo = Framework.nativeGetRouteFollowingInfo();
+    final RoutingInfo routingInfo = snapshot.info;
     if (routingInfo == null)
       return;
 
@@ -305,23 +301,6 @@ public class NavigationService extends Service implements LocationListener
         && ActivityCompat.checkSelfPermission(this, POST_NOTIFICATIONS) != PERMISSION_GRANTED)
       return;
 
-    final NotificationCompat.Builder notificationBuilder = getNotificationBuilder(this)
-                                                               .setContentTitle(routingInfo.distToTurn.toString(this))
-                                                               .setContentText(routingInfo.nextStreet);
-
-    final Drawable drawable = AppCompatResources.getDrawable(this, routingInfo.carDirection.getTurnRes());
-    if (drawable != null)
-    {
-      final Bitmap bitmap = isColorizedSupported() ? Graphics.drawableToBitmap(drawable)
-                                                   : Graphics.drawableToBitmapWithTint(
-                                                         drawable, ContextCompat.getColor(this, R.color.base_accent));
-      notificationBuilder.setLargeIcon(bitmap);
-    }
-
-    if (mCarNotificationExtender != null)
-      notificationBuilder.extend(mCarNotificationExtender);
-
-    // The notification object must be re-created for every update.
-    NotificationManagerCompat.from(this).notify(NOTIFICATION_ID, notificationBuilder.build());
+    mNotificationRenderer.render(getNotificationBuilder(this), routingInfo, mCarNotificationExtender);
   }
 }
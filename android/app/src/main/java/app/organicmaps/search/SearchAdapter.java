@@ -9,21 +9,73 @@ import androidx.annotation.AttrRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.textview.MaterialTextView;
 
 import app.organicmaps.R;
 import app.organicmaps.sdk.search.SearchResult;
+import app.organicmaps.sdk.util.concurrency.Lane;
+import app.organicmaps.sdk.util.concurrency.ThreadPool;
+import app.organicmaps.sdk.util.concurrency.UiThread;
 import app.organicmaps.util.Graphics;
 import app.organicmaps.util.ThemeUtils;
 import app.organicmaps.util.UiUtils;
+import java.util.HashMap;
+import java.util.Map;
 
 class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHolder>
 {
   private final SearchFragment mSearchFragment;
   @Nullable
   private SearchResult[] mResults;
+  // Stable ids of mResults, a result keeps its id while its key is in the results.
+  @NonNull
+  private long[] mItemIds = new long[0];
+  @NonNull
+  private Map<String, Long> mIds = new HashMap<>();
+  private long mNextId;
+  // Incremented by every update, the diff of an outdated update is dropped.
+  private int mGeneration;
+
+  private static class DiffCallback extends DiffUtil.Callback
+  {
+    @NonNull
+    private final SearchResult[] mOld;
+    @NonNull
+    private final SearchResult[] mNew;
+
+    DiffCallback(@NonNull SearchResult[] oldResults, @NonNull SearchResult[] newResults)
+    {
+      mOld = oldResults;
+      mNew = newResults;
+    }
+
+    @Override
+    public int getOldListSize()
+    {
+      return mOld.length;
+    }
+
+    @Override
+    public int getNewListSize()
+    {
+      return mNew.length;
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition)
+    {
+      return mOld[oldItemPosition].getKey().equals(mNew[newItemPosition].getKey());
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition)
+    {
+      return mOld[oldItemPosition].hasSameContent(mNew[newItemPosition]);
+    }
+  }
 
   static abstract class SearchDataViewHolder extends RecyclerView.ViewHolder
   {
@@ -38,8 +90,6 @@ class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHol
   private static abstract class BaseResultViewHolder extends SearchDataViewHolder
   {
     SearchResult mResult;
-    // Position within search results
-    int mOrder;
 
     BaseResultViewHolder(@NonNull View view)
     {
@@ -50,14 +100,17 @@ class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHol
         if (tintAttr != 0)
           Graphics.tint((MaterialTextView) view, tintAttr);
       }
-      view.setOnClickListener(v -> processClick(mResult, mOrder));
+      // The adapter position is not used, the shown results could be older than the native ones.
+      view.setOnClickListener(v -> {
+        if (mResult != null)
+          processClick(mResult);
+      });
     }
 
     @Override
     void bind(@NonNull SearchResult result, int order)
     {
       mResult = result;
-      mOrder = order;
       final MaterialTextView titleView = getTitleView();
 
       if (titleView != null)
@@ -72,7 +125,7 @@ class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHol
 
     abstract MaterialTextView getTitleView();
 
-    abstract void processClick(SearchResult result, int order);
+    abstract void processClick(@NonNull SearchResult result);
   }
 
   private class SuggestViewHolder extends BaseResultViewHolder
@@ -89,7 +142,7 @@ class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHol
     }
 
     @Override
-    void processClick(SearchResult result, int order)
+    void processClick(@NonNull SearchResult result)
     {
       mSearchFragment.setQuery(result.suggestion, result.type == SearchResult.TYPE_PURE_SUGGEST);
     }
@@ -195,15 +248,16 @@ class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHol
     }
 
     @Override
-    void processClick(SearchResult result, int order)
+    void processClick(@NonNull SearchResult result)
     {
-      mSearchFragment.showSingleResultOnMap(result, order);
+      mSearchFragment.showSingleResultOnMap(result);
     }
   }
 
   SearchAdapter(SearchFragment fragment)
   {
     mSearchFragment = fragment;
+    setHasStableIds(true);
   }
 
   @NonNull
@@ -237,7 +291,7 @@ class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHol
   @Override
   public long getItemId(int position)
   {
-    return position;
+    return mItemIds[position];
   }
 
   @Override
@@ -256,9 +310,64 @@ class SearchAdapter extends RecyclerView.Adapter<SearchAdapter.SearchDataViewHol
     refreshData(null);
   }
 
+  /**
+   * Results of the same search are diffed on the worker thread and the changes are applied incrementally,
+   * so the rows which are not changed are not bound again. The highlighted texts are formatted there too.
+   */
   void refreshData(@Nullable SearchResult[] results)
+  {
+    final int generation = ++mGeneration;
+    final SearchResult[] oldResults = mResults;
+    if (oldResults == null || oldResults.length == 0 || results == null || results.length == 0)
+    {
+      setResults(results);
+      notifyDataSetChanged();
+      return;
+    }
+
+    final Context context = mSearchFragment.requireContext().getApplicationContext();
+    // The diff of every results update is not worth queueing behind a busy worker, the list is rebound instead.
+    final boolean isQueued = ThreadPool.getWorker().tryExecute(() -> {
+      final DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffCallback(oldResults, results));
+      for (SearchResult result : results)
+      {
+        result.getFormattedTitle(context);
+        if (result.type == SearchResult.TYPE_RESULT)
+          result.getFormattedAddress(context);
+      }
+
+      UiThread.run(() -> {
+        if (generation != mGeneration)
+          return;
+        setResults(results);
+        diff.dispatchUpdatesTo(this);
+      });
+    }, Lane.Priority.NORMAL, null);
+
+    if (!isQueued)
+    {
+      setResults(results);
+      notifyDataSetChanged();
+    }
+  }
+
+  private void setResults(@Nullable SearchResult[] results)
   {
     mResults = results;
-    notifyDataSetChanged();
+    final int count = results == null ? 0 : results.length;
+    final Map<String, Long> ids = new HashMap<>(count);
+    mItemIds = new long[count];
+    for (int i = 0; i < count; ++i)
+    {
+      final String key = results[i].getKey();
+      Long id = mIds.get(key);
+      // Duplicated keys get the new ids.
+      if (id == null || ids.containsKey(key))
+        id = mNextId++;
+      if (!ids.containsKey(key))
+        ids.put(key, id);
+      mItemIds[i] = id;
+    }
+    mIds = ids;
   }
 }
@@ -36,9 +36,11 @@ import app.organicmaps.sdk.search.SearchEngine;
 import app.organicmaps.sdk.search.SearchListener;
 import app.organicmaps.sdk.search.SearchRecents;
 import app.organicmaps.sdk.search.SearchResult;
+import app.organicmaps.sdk.search.SearchScheduler;
 import app.organicmaps.sdk.util.Config;
 import app.organicmaps.sdk.util.Language;
 import app.organicmaps.sdk.util.SharedPropertiesUtils;
+import app.organicmaps.sdk.util.log.Logger;
 import app.organicmaps.util.UiUtils;
 import app.organicmaps.util.Utils;
 import app.organicmaps.util.WindowInsetUtils;
@@ -54,6 +56,8 @@ import java.util.List;
 
 public class SearchFragment extends BaseMwmFragment implements SearchListener, CategoriesAdapter.CategoriesUiListener
 {
+  private static final String TAG = SearchFragment.class.getSimpleName();
+
   private long mLastQueryTimestamp;
   @NonNull
   private final List<HiddenCommand> mHiddenCommands = new ArrayList<>();
@@ -152,6 +156,8 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
   @SuppressWarnings("NullableProblems")
   @NonNull
   private SearchAdapter mSearchAdapter;
+  @NonNull
+  private final SearchScheduler mSearchScheduler = new SearchScheduler(this::startSearch);
 
   private final List<RecyclerView> mAttachedRecyclers = new ArrayList<>();
   private final RecyclerView.OnScrollListener mRecyclerListener = new RecyclerView.OnScrollListener() {
@@ -282,6 +288,18 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
                                                  {
                                                    updateResultsPlaceholder();
                                                  }
+
+                                                 @Override
+                                                 public void onItemRangeInserted(int positionStart, int itemCount)
+                                                 {
+                                                   updateResultsPlaceholder();
+                                                 }
+
+                                                 @Override
+                                                 public void onItemRangeRemoved(int positionStart, int itemCount)
+                                                 {
+                                                   updateResultsPlaceholder();
+                                                 }
                                                });
     mShowOnMapFab = root.findViewById(R.id.show_on_map_fab);
     mShowOnMapFab.setOnClickListener(v -> showAllResultsOnMap());
@@ -297,6 +315,7 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
     mToolbarController.activate();
 
     SearchEngine.INSTANCE.addListener(this);
+    SearchEngine.INSTANCE.addListener(mSearchScheduler);
 
     SharedPreferences preferences = MwmApplication.prefs(requireContext());
     int lastSelectedTabPosition = preferences.getInt(Config.KEY_PREF_LAST_SEARCHED_TAB, 0);
@@ -348,6 +367,8 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
       v.removeOnScrollListener(mRecyclerListener);
 
     mAttachedRecyclers.clear();
+    mSearchScheduler.cancel();
+    SearchEngine.INSTANCE.removeListener(mSearchScheduler);
     SearchEngine.INSTANCE.removeListener(this);
     super.onDestroy();
   }
@@ -400,15 +421,25 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
     return mHiddenCommands;
   }
 
-  void showSingleResultOnMap(@NonNull SearchResult result, int resultIndex)
+  void showSingleResultOnMap(@NonNull SearchResult result)
   {
+    final boolean isPoiPick = RoutingController.get().isWaitingPoiPick();
+    // The native results are replaced before the shown ones, the result is looked up in them.
+    final int resultIndex = isPoiPick ? -1 : SearchEngine.INSTANCE.getResultIndex(result);
+    if (!isPoiPick && resultIndex < 0)
+    {
+      Logger.w(TAG, "The result is not in the native results anymore");
+      return;
+    }
+
     final String query = getQuery();
     if (Config.isSearchHistoryEnabled())
       SearchRecents.add(query, requireContext());
+    mSearchScheduler.cancel();
     SearchEngine.INSTANCE.cancel();
     SearchEngine.INSTANCE.setQuery(query);
 
-    if (RoutingController.get().isWaitingPoiPick())
+    if (isPoiPick)
     {
       final String subtitle = (result.description != null) ? result.description.localizedFeatureType : "";
       final String title = TextUtils.isEmpty(result.name) ? subtitle : result.name;
@@ -434,6 +465,7 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
 
     // The previous search should be cancelled before the new one is started, since previous search
     // results are no longer needed.
+    mSearchScheduler.cancel();
     SearchEngine.INSTANCE.cancel();
 
     final String query = getQuery();
@@ -466,6 +498,7 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
 
   private void stopSearch()
   {
+    mSearchScheduler.cancel();
     SearchEngine.INSTANCE.cancel();
     updateSearchView();
   }
@@ -478,35 +511,52 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
 
   private void runSearch()
   {
+    // Typed queries are coalesced, the results of the previous query are filtered while the search is delayed.
+    final SearchResult[] reused = mSearchScheduler.schedule(getQuery(), isCategory());
+    if (reused != null)
+      mSearchAdapter.refreshData(reused);
+
+    mSearchRunning = true;
+    mToolbarController.showProgress(true);
+
+    updateFrames();
+  }
+
+  private boolean startSearch(@NonNull String query, boolean isCategory, long timestamp)
+  {
+    if (!isAdded())
+      return false;
+
     // The previous search should be cancelled before the new one is started, since previous search
     // results are no longer needed.
     SearchEngine.INSTANCE.cancel();
 
-    mLastQueryTimestamp = System.nanoTime();
+    mLastQueryTimestamp = timestamp;
     if (isTabletSearch())
     {
-      SearchEngine.INSTANCE.searchInteractive(requireContext(), getQuery(), isCategory(), mLastQueryTimestamp,
+      SearchEngine.INSTANCE.searchInteractive(requireContext(), query, isCategory, mLastQueryTimestamp,
                                               true /* isMapAndTable */);
     }
     else
     {
-      if (!SearchEngine.INSTANCE.search(requireContext(), getQuery(), isCategory(), mLastQueryTimestamp,
+      if (!SearchEngine.INSTANCE.search(requireContext(), query, isCategory, mLastQueryTimestamp,
                                         mLastPosition.valid, mLastPosition.lat, mLastPosition.lon))
       {
-        return;
+        updateSearchView();
+        return false;
       }
     }
 
+    // The previous search could end while this one was delayed.
     mSearchRunning = true;
     mToolbarController.showProgress(true);
-
-    updateFrames();
+    return true;
   }
 
   @Override
   public void onResultsUpdate(@NonNull SearchResult[] results, long timestamp)
   {
-    if (!isAdded() || !mToolbarController.hasQuery())
+    if (!isAdded() || !mToolbarController.hasQuery() || !isLastQuery(timestamp))
       return;
 
     refreshSearchResults(results);
@@ -515,9 +565,19 @@ public class SearchFragment extends BaseMwmFragment implements SearchListener, C
   @Override
   public void onResultsEnd(long timestamp)
   {
+    if (!isLastQuery(timestamp))
+      return;
+
     onSearchEnd();
   }
 
+  // The search of a pending query is not started yet, the results of the running one would replace the reused
+  // results of the pending query, and its end would hide the progress.
+  private boolean isLastQuery(long timestamp)
+  {
+    return timestamp == mLastQueryTimestamp && !mSearchScheduler.hasPending();
+  }
+
   @Override
   public void onSearchCategorySelected(@Nullable String category)
   {
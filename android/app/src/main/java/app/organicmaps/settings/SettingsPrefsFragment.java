@@ -65,6 +65,7 @@ public class SettingsPrefsFragment extends BaseXmlSettingsFragment implements La
     initPerspectivePrefsCallbacks();
     initAutoZoomPrefsCallbacks();
     initLoggingEnabledPrefsCallbacks();
+    initBinaryLoggingPrefsCallbacks();
     initEmulationBadStorage();
     initUseMobileDataPrefsCallbacks();
     initPowerManagementPrefsCallbacks();
@@ -276,6 +277,17 @@ public class SettingsPrefsFragment extends BaseXmlSettingsFragment implements La
     });
   }
 
+  private void initBinaryLoggingPrefsCallbacks()
+  {
+    final Preference pref = getPreference(getString(R.string.pref_binary_logging));
+
+    ((TwoStatePreference) pref).setChecked(LogsManager.INSTANCE.isBinaryLoggingEnabled());
+    pref.setOnPreferenceChangeListener((preference, newValue) -> {
+      LogsManager.INSTANCE.setBinaryLoggingEnabled((Boolean) newValue);
+      return true;
+    });
+  }
+
   private void initEmulationBadStorage()
   {
     final Preference pref = findPreference(getString(R.string.pref_emulate_bad_external_storage));
@@ -1,7 +1,7 @@
 package app.organicmaps.settings;
 
-import android.app.Dialog;
 import android.app.ProgressDialog;
+import android.content.Context;
 import android.os.Bundle;
 import android.text.format.Formatter;
 import android.view.LayoutInflater;
@@ -15,7 +15,6 @@ import app.organicmaps.sdk.Framework;
 import app.organicmaps.sdk.settings.StorageItem;
 import app.organicmaps.sdk.settings.StoragePathManager;
 import app.organicmaps.sdk.util.Config;
-import app.organicmaps.sdk.util.StorageUtils;
 import app.organicmaps.sdk.util.concurrency.ThreadPool;
 import app.organicmaps.sdk.util.concurrency.UiThread;
 import app.organicmaps.util.SharingUtils;
@@ -27,12 +26,17 @@ import java.util.List;
 
 public class StoragePathFragment extends BaseSettingsFragment
 {
+  private static final int PROGRESS_MAX = 1000;
+
   private MaterialTextView mHeader;
 
   private StoragePathAdapter mAdapter;
   private StoragePathManager mPathManager;
 
   private ActivityResultLauncher<SharingUtils.SharingIntent> shareLauncher;
+  private boolean mIsMoving;
+  private boolean mIsSizeKnown;
+
   @Override
   protected int getLayoutRes()
   {
@@ -63,6 +67,7 @@ public class StoragePathFragment extends BaseSettingsFragment
     mPathManager.startExternalStorageWatching((items, idx) -> updateList());
     mPathManager.scanAvailableStorages();
     updateList();
+    offerInterruptedMove();
   }
 
   @Override
@@ -74,11 +79,21 @@ public class StoragePathFragment extends BaseSettingsFragment
 
   private void updateList()
   {
-    final long dirSize = StorageUtils.getDirSizeRecursively(new File(Framework.nativeGetWritableDir()),
-                                                            StoragePathManager.MOVABLE_FILES_FILTER);
-    mHeader.setText(getString(R.string.maps_storage_downloaded) + ": "
-                    + Formatter.formatShortFileSize(requireActivity(), dirSize));
-    mAdapter.update(dirSize);
+    mAdapter.notifyDataSetChanged();
+    // Walking over the maps of a large storage takes a while.
+    final Context context = requireContext().getApplicationContext();
+    final String path = Framework.nativeGetWritableDir();
+    ThreadPool.getWorker().execute(() -> {
+      final long dirSize = StoragePathManager.getMovableFilesSize(context, path);
+      UiThread.run(() -> {
+        if (!isAdded())
+          return;
+        mIsSizeKnown = true;
+        mHeader.setText(getString(R.string.maps_storage_downloaded) + ": "
+                        + Formatter.formatShortFileSize(requireActivity(), dirSize));
+        mAdapter.update(dirSize);
+      });
+    });
   }
 
   /**
@@ -90,7 +105,7 @@ public class StoragePathFragment extends BaseSettingsFragment
   {
     final int currentIndex = mPathManager.mCurrentStorageIndex;
     final List<StorageItem> storages = mPathManager.mStorages;
-    if (newIndex == currentIndex || currentIndex == -1 || storages.get(newIndex).mIsReadonly
+    if (!mIsSizeKnown || newIndex == currentIndex || currentIndex == -1 || storages.get(newIndex).mIsReadonly
         || !mAdapter.isStorageBigEnough(newIndex))
       return;
 
@@ -106,33 +121,79 @@ public class StoragePathFragment extends BaseSettingsFragment
         .show();
   }
 
+  /**
+   * Asks for user confirmation and continues the move which was interrupted by the process death.
+   */
+  private void offerInterruptedMove()
+  {
+    if (mIsMoving)
+      return;
+    final String[] paths = StoragePathManager.getInterruptedMove(requireContext());
+    // The move could be continued only from the storage which is used now.
+    if (paths == null || !new File(paths[0]).equals(new File(Framework.nativeGetWritableDir())))
+      return;
+
+    new MaterialAlertDialogBuilder(requireActivity(), R.style.MwmTheme_AlertDialog)
+        .setCancelable(false)
+        .setTitle(R.string.move_maps)
+        .setPositiveButton(R.string.ok, (dlg, which) -> moveStorage(paths[1], paths[0]))
+        .setNegativeButton(R.string.cancel, (dlg, which) -> dlg.dismiss())
+        .create()
+        .show();
+  }
+
   @SuppressWarnings("deprecation") // https://github.com/organicmaps/organicmaps/issues/3629
-  private Dialog showProgressDialog()
+  private ProgressDialog showProgressDialog()
   {
     final ProgressDialog dialog = new ProgressDialog(requireActivity(), R.style.MwmTheme_ProgressDialog);
     dialog.setMessage(getString(R.string.wait_several_minutes));
-    dialog.setProgressStyle(ProgressDialog.STYLE_SPINNER);
+    dialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
     dialog.setIndeterminate(true);
+    dialog.setProgressNumberFormat(null);
     dialog.setCancelable(false);
     dialog.show();
     return dialog;
   }
 
+  @SuppressWarnings("deprecation") // https://github.com/organicmaps/organicmaps/issues/3629
+  private void updateProgress(@NonNull ProgressDialog dialog, long bytesCopied, long bytesTotal, long bytesPerSecond)
+  {
+    if (!dialog.isShowing() || bytesTotal <= 0)
+      return;
+    dialog.setIndeterminate(false);
+    dialog.setMax(PROGRESS_MAX);
+    dialog.setProgress((int) (bytesCopied * PROGRESS_MAX / bytesTotal));
+    dialog.setProgressNumberFormat(Formatter.formatShortFileSize(dialog.getContext(), bytesCopied) + " / "
+                                   + Formatter.formatShortFileSize(dialog.getContext(), bytesTotal) + ", "
+                                   + Formatter.formatShortFileSize(dialog.getContext(), bytesPerSecond) + "/s");
+  }
+
   /**
    * Shows a progress dialog and runs a move files thread.
    */
   private void moveStorage(@NonNull final String newPath, @NonNull final String oldPath)
   {
-    final Dialog dialog = showProgressDialog();
+    mIsMoving = true;
+    final ProgressDialog dialog = showProgressDialog();
+    final Context context = requireContext().getApplicationContext();
     ThreadPool.getStorage().execute(() -> {
-      final boolean result = StoragePathManager.moveStorage(newPath, oldPath);
+      final boolean result = StoragePathManager.moveStorage(context, newPath, oldPath,
+          (bytesCopied, bytesTotal, bytesPerSecond) -> UiThread.run(
+              () -> updateProgress(dialog, bytesCopied, bytesTotal, bytesPerSecond)));
 
       UiThread.run(() -> {
+        mIsMoving = false;
         if (dialog.isShowing())
           dialog.dismiss();
 
-        if (!result)
+        if (result)
+        {
+          Framework.nativeChangeWritableDir(newPath);
+          Config.setStoragePath(newPath);
+        }
+        else
         {
+          // Sources are deleted only after all the files are copied, so the maps stay in the old storage.
           new MaterialAlertDialogBuilder(requireActivity(), R.style.MwmTheme_AlertDialog)
               .setTitle(R.string.move_maps_error)
               .setPositiveButton(
@@ -140,8 +201,6 @@ public class StoragePathFragment extends BaseSettingsFragment
                   (dlg, which) -> Utils.sendBugReport(shareLauncher, requireActivity(), "Error moving map files", ""))
               .show();
         }
-        Framework.nativeChangeWritableDir(newPath);
-        Config.setStoragePath(newPath);
         mPathManager.scanAvailableStorages();
         updateList();
       });
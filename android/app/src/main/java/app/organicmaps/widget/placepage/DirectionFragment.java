@@ -16,6 +16,7 @@ import app.organicmaps.sdk.bookmarks.data.DistanceAndAzimut;
 import app.organicmaps.sdk.bookmarks.data.MapObject;
 import app.organicmaps.sdk.location.LocationListener;
 import app.organicmaps.sdk.location.SensorListener;
+import app.organicmaps.sdk.util.GeoUtils;
 import app.organicmaps.sdk.util.StringUtils;
 import app.organicmaps.util.UiUtils;
 import app.organicmaps.util.Utils;
@@ -33,6 +34,7 @@ public class DirectionFragment extends BaseMwmDialogFragment implements Location
   private MaterialTextView mTvAzimuth;
 
   private MapObject mMapObject;
+  private long mAzimuthDegrees = -1;
 
   @Override
   protected int getCustomTheme()
@@ -70,6 +72,7 @@ public class DirectionFragment extends BaseMwmDialogFragment implements Location
     mTvSubtitle = root.findViewById(R.id.tv__subtitle);
     mTvDistance = root.findViewById(R.id.tv__straight_distance);
     mTvAzimuth = root.findViewById(R.id.tv__azimuth);
+    mAzimuthDegrees = -1;
 
     UiUtils.waitLayout(mTvTitle, () -> {
       final int height = mTvTitle.getHeight();
@@ -81,6 +84,7 @@ public class DirectionFragment extends BaseMwmDialogFragment implements Location
   public void setMapObject(MapObject object)
   {
     mMapObject = object;
+    mAzimuthDegrees = -1;
     refreshViews();
   }
 
@@ -136,15 +140,18 @@ public class DirectionFragment extends BaseMwmDialogFragment implements Location
     if (last == null || mMapObject == null)
       return;
 
-    final DistanceAndAzimut da = Framework.nativeGetDistanceAndAzimuthFromLatLon(
-        mMapObject.getLat(), mMapObject.getLon(), last.getLatitude(), last.getLongitude(), north);
+    // Called at the rate of the compass, so the azimuth is computed in Java without allocations.
+    final double lat = last.getLatitude();
+    final double lon = last.getLongitude();
+    mAvDirection.setAzimuth(GeoUtils.azimuthFromLatLon(mMapObject.getLat(), mMapObject.getLon(), lat, lon, north));
 
-    if (da.getAzimuth() >= 0)
+    // The text is formatted only when the shown degree is changed.
+    final long degrees =
+        Math.round(Math.toDegrees(GeoUtils.azimuthFromLatLon(mMapObject.getLat(), mMapObject.getLon(), lat, lon, 0.0)));
+    if (degrees != mAzimuthDegrees)
     {
-      mAvDirection.setAzimuth(da.getAzimuth());
-      final DistanceAndAzimut daAbs = Framework.nativeGetDistanceAndAzimuthFromLatLon(
-          mMapObject.getLat(), mMapObject.getLon(), last.getLatitude(), last.getLongitude(), 0.0);
-      mTvAzimuth.setText(StringUtils.formatUsingUsLocale("%.0f°", Math.toDegrees(daAbs.getAzimuth())));
+      mAzimuthDegrees = degrees;
+      mTvAzimuth.setText(StringUtils.formatUsingUsLocale("%d°", degrees));
     }
   }
 }
@@ -61,6 +61,7 @@ import app.organicmaps.sdk.location.LocationListener;
 import app.organicmaps.sdk.location.SensorListener;
 import app.organicmaps.sdk.routing.RoutingController;
 import app.organicmaps.sdk.util.DateUtils;
+import app.organicmaps.sdk.util.GeoUtils;
 import app.organicmaps.sdk.util.StringUtils;
 import app.organicmaps.sdk.util.concurrency.UiThread;
 import app.organicmaps.sdk.widget.placepage.CoordinatesFormat;
@@ -985,7 +986,7 @@ public class PlacePageView extends Fragment
 
     mCurrentCountry = map;
     if (mStorageCallbackSlot == 0)
-      mStorageCallbackSlot = MapManager.nativeSubscribe(mStorageCallback);
+      mStorageCallbackSlot = MapManager.subscribeBatched(mStorageCallback);
 
     mDownloaderIcon
         .setOnIconClickListener((v) -> MapManagerHelper.warn3gAndDownload(requireActivity(), mCurrentCountry.id, null))
@@ -1000,7 +1001,7 @@ public class PlacePageView extends Fragment
     if (mStorageCallbackSlot == 0 || mCurrentCountry == null)
       return;
 
-    MapManager.nativeUnsubscribe(mStorageCallbackSlot);
+    MapManager.unsubscribe(mStorageCallbackSlot);
     mStorageCallbackSlot = 0;
     mCurrentCountry = null;
     mDownloaderIcon.setOnIconClickListener(null).setOnCancelClickListener(null);
@@ -1052,16 +1053,11 @@ public class PlacePageView extends Fragment
       return;
     }
 
-    final double azimuth =
-        Framework
-            .nativeGetDistanceAndAzimuthFromLatLon(mMapObject.getLat(), mMapObject.getLon(), location.getLatitude(),
-                                                   location.getLongitude(), north)
-            .getAzimuth();
-    UiUtils.showIf(azimuth >= 0, mAvDirection);
-    if (azimuth >= 0)
-    {
-      mAvDirection.setAzimuth(azimuth);
-    }
+    // Called at the rate of the compass, so the azimuth is computed in Java without allocations.
+    final double azimuth = GeoUtils.azimuthFromLatLon(mMapObject.getLat(), mMapObject.getLon(), location.getLatitude(),
+                                                      location.getLongitude(), north);
+    UiUtils.show(mAvDirection);
+    mAvDirection.setAzimuth(azimuth);
   }
 
   void shareClickListener(View v)
@@ -15,7 +15,9 @@
 #include "base/string_utils.hpp"
 
 #include <limits>
+#include <unordered_map>
 #include <utility>
+#include <vector>
 
 using namespace jni;
 using namespace std::placeholders;
@@ -25,6 +27,9 @@ namespace
 jclass g_bookmarkManagerClass;
 jfieldID g_bookmarkManagerInstanceField;
 jmethodID g_onBookmarksChangedMethod;
+jmethodID g_onCategoriesChangesMethod;
+// Revision of the last categories changes passed to Java.
+jlong g_categoriesRevision = 0;
 jmethodID g_onBookmarksLoadingStartedMethod;
 jmethodID g_onBookmarksLoadingFinishedMethod;
 jmethodID g_onBookmarksFileLoadedMethod;
@@ -42,6 +47,8 @@ jmethodID g_onBookmarksSortingCompleted;
 jmethodID g_onBookmarksSortingCancelled;
 jmethodID g_bookmarkInfoConstructor;
 jclass g_bookmarkInfoClass;
+jclass g_bookmarkPageClass;
+jmethodID g_bookmarkPageConstructor;
 
 void PrepareClassRefs(JNIEnv * env)
 {
@@ -54,6 +61,7 @@ void PrepareClassRefs(JNIEnv * env)
 
   jobject bookmarkManagerInstance = env->GetStaticObjectField(g_bookmarkManagerClass, g_bookmarkManagerInstanceField);
   g_onBookmarksChangedMethod = jni::GetMethodID(env, bookmarkManagerInstance, "onBookmarksChanged", "()V");
+  g_onCategoriesChangesMethod = jni::GetMethodID(env, bookmarkManagerInstance, "onCategoriesChanges", "(J[J[J[J)V");
   g_onBookmarksLoadingStartedMethod =
       jni::GetMethodID(env, bookmarkManagerInstance, "onBookmarksLoadingStarted", "()V");
   g_onBookmarksLoadingFinishedMethod =
@@ -74,6 +82,18 @@ void PrepareClassRefs(JNIEnv * env)
   g_onBookmarksSortingCancelled = jni::GetMethodID(env, bookmarkManagerInstance, "onBookmarksSortingCancelled", "(J)V");
   g_bookmarkInfoClass = jni::GetGlobalClassRef(env, "app/organicmaps/sdk/bookmarks/data/BookmarkInfo");
   g_bookmarkInfoConstructor = jni::GetConstructorID(env, g_bookmarkInfoClass, "(JJ)V");
+  g_bookmarkPageClass = jni::GetGlobalClassRef(env, "app/organicmaps/sdk/bookmarks/data/BookmarkPage");
+  g_bookmarkPageConstructor = jni::GetConstructorID(env, g_bookmarkPageClass,
+                                                    "("
+                                                    "[J"                   // ids
+                                                    "[D"                   // merX
+                                                    "[D"                   // merY
+                                                    "[I"                   // colors
+                                                    "[I"                   // icons
+                                                    "[I"                   // names
+                                                    "[I"                   // featureTypes
+                                                    "[Ljava/lang/String;"  // strings
+                                                    ")V");
   g_bookmarkCategoryClass = jni::GetGlobalClassRef(env, "app/organicmaps/sdk/bookmarks/data/BookmarkCategory");
 
   // public BookmarkCategory(long id,
@@ -123,6 +143,32 @@ void OnBookmarksChanged(JNIEnv * env)
   jni::HandleJavaException(env);
 }
 
+jlongArray ToJavaCategoryIds(JNIEnv * env, kml::GroupIdSet const & groupIds)
+{
+  std::vector<jlong> ids;
+  for (auto const groupId : groupIds)
+    if (BookmarkManager::IsBookmarkCategory(groupId))
+      ids.push_back(static_cast<jlong>(groupId));
+
+  auto const size = static_cast<jsize>(ids.size());
+  jlongArray result = env->NewLongArray(size);
+  env->SetLongArrayRegion(result, 0, size, ids.data());
+  return result;
+}
+
+void OnCategoriesChanges(JNIEnv * env, kml::GroupIdSet const & created, kml::GroupIdSet const & updated,
+                         kml::GroupIdSet const & removed)
+{
+  ASSERT(g_bookmarkManagerClass, ());
+  jobject bookmarkManagerInstance = env->GetStaticObjectField(g_bookmarkManagerClass, g_bookmarkManagerInstanceField);
+  jni::ScopedLocalRef<jlongArray> const createdIds(env, ToJavaCategoryIds(env, created));
+  jni::ScopedLocalRef<jlongArray> const updatedIds(env, ToJavaCategoryIds(env, updated));
+  jni::ScopedLocalRef<jlongArray> const removedIds(env, ToJavaCategoryIds(env, removed));
+  env->CallVoidMethod(bookmarkManagerInstance, g_onCategoriesChangesMethod, ++g_categoriesRevision, createdIds.get(),
+                      updatedIds.get(), removedIds.get());
+  jni::HandleJavaException(env);
+}
+
 void OnAsyncLoadingStarted(JNIEnv * env)
 {
   ASSERT(g_bookmarkManagerClass, ());
@@ -259,6 +305,77 @@ jobjectArray MakeCategories(JNIEnv * env, kml::GroupIdCollection const & ids)
 {
   return ToJavaArray(env, g_bookmarkCategoryClass, ids, std::bind(&MakeCategory, _1, _2));
 }
+
+// Passes the bookmarks to Java as columns of a BookmarkPage, see BookmarkPage.java.
+jobject MakeBookmarkPage(JNIEnv * env, std::vector<kml::MarkId> const & ids)
+{
+  auto const & bm = frm()->GetBookmarkManager();
+  auto const size = ids.size();
+
+  std::vector<jdouble> merX, merY;
+  std::vector<jint> colors, icons, names, types;
+  merX.reserve(size);
+  merY.reserve(size);
+  colors.reserve(size);
+  icons.reserve(size);
+  names.reserve(size);
+  types.reserve(size);
+
+  // Feature types are repeated a lot, so all the strings are passed as a table of the unique ones.
+  std::vector<std::string> strings;
+  std::unordered_map<std::string, jint> stringIndices;
+  auto const addString = [&strings, &stringIndices](std::string && str)
+  {
+    auto const [it, inserted] = stringIndices.emplace(str, static_cast<jint>(strings.size()));
+    if (inserted)
+      strings.push_back(std::move(str));
+    return it->second;
+  };
+
+  for (auto const id : ids)
+  {
+    auto const * mark = bm.GetBookmark(id);
+    // The caller could pass the ids of the just deleted bookmarks.
+    if (!mark)
+    {
+      merX.push_back(0.0);
+      merY.push_back(0.0);
+      colors.push_back(static_cast<jint>(kml::kColorIndexMap[E2I(frm()->LastEditedBMColor())]));
+      icons.push_back(static_cast<jint>(kml::BookmarkIcon::None));
+      names.push_back(addString({}));
+      types.push_back(addString({}));
+      continue;
+    }
+    auto const pivot = mark->GetPivot();
+    merX.push_back(pivot.x);
+    merY.push_back(pivot.y);
+    colors.push_back(static_cast<jint>(kml::kColorIndexMap[E2I(mark->GetColor())]));
+    icons.push_back(static_cast<jint>(mark->GetData().m_icon));
+    names.push_back(addString(mark->GetPreferredName()));
+    types.push_back(addString(kml::GetLocalizedFeatureType(mark->GetData().m_featureTypes)));
+  }
+
+  auto const length = static_cast<jsize>(size);
+  static_assert(sizeof(jlong) == sizeof(kml::MarkId));
+  jni::ScopedLocalRef<jlongArray> jIds(env, env->NewLongArray(length));
+  env->SetLongArrayRegion(jIds.get(), 0, length, reinterpret_cast<jlong const *>(ids.data()));
+  jni::ScopedLocalRef<jdoubleArray> jMerX(env, env->NewDoubleArray(length));
+  env->SetDoubleArrayRegion(jMerX.get(), 0, length, merX.data());
+  jni::ScopedLocalRef<jdoubleArray> jMerY(env, env->NewDoubleArray(length));
+  env->SetDoubleArrayRegion(jMerY.get(), 0, length, merY.data());
+  jni::ScopedLocalRef<jintArray> jColors(env, env->NewIntArray(length));
+  env->SetIntArrayRegion(jColors.get(), 0, length, colors.data());
+  jni::ScopedLocalRef<jintArray> jIcons(env, env->NewIntArray(length));
+  env->SetIntArrayRegion(jIcons.get(), 0, length, icons.data());
+  jni::ScopedLocalRef<jintArray> jNames(env, env->NewIntArray(length));
+  env->SetIntArrayRegion(jNames.get(), 0, length, names.data());
+  jni::ScopedLocalRef<jintArray> jTypes(env, env->NewIntArray(length));
+  env->SetIntArrayRegion(jTypes.get(), 0, length, types.data());
+  jni::TScopedLocalObjectArrayRef jStrings(env, jni::ToJavaStringArray(env, strings));
+
+  return env->NewObject(g_bookmarkPageClass, g_bookmarkPageConstructor, jIds.get(), jMerX.get(), jMerY.get(),
+                        jColors.get(), jIcons.get(), jNames.get(), jTypes.get(), jStrings.get());
+}
 }  // namespace
 
 extern "C"
@@ -287,6 +404,7 @@ JNIEXPORT void JNICALL Java_app_organicmaps_sdk_bookmarks_data_BookmarkManager_n
   frm()->GetBookmarkManager().SetAsyncLoadingCallbacks(std::move(callbacks));
 
   frm()->GetBookmarkManager().SetBookmarksChangedCallback(std::bind(&OnBookmarksChanged, env));
+  frm()->GetBookmarkManager().SetCategoriesChangesCallback(std::bind(&OnCategoriesChanges, env, _1, _2, _3));
 
   frm()->LoadBookmarks();
 }
@@ -369,6 +487,21 @@ JNIEXPORT void JNICALL Java_app_organicmaps_sdk_bookmarks_data_BookmarkManager_n
   frm()->AddBookmarksFile(ToNativeString(env, path), isTemporaryFile);
 }
 
+JNIEXPORT void JNICALL Java_app_organicmaps_sdk_bookmarks_data_BookmarkManager_nativeLoadBookmarksFiles(
+    JNIEnv * env, jclass, jobjectArray paths, jboolean isTemporaryFile)
+{
+  auto const size = env->GetArrayLength(paths);
+  std::vector<std::string> filePaths;
+  filePaths.reserve(static_cast<size_t>(size));
+  for (auto i = 0; i < size; i++)
+  {
+    jni::TScopedLocalRef const item(env, env->GetObjectArrayElement(paths, i));
+    filePaths.push_back(jni::ToNativeString(env, static_cast<jstring>(item.get())));
+  }
+
+  frm()->AddBookmarksFiles(filePaths, isTemporaryFile);
+}
+
 JNIEXPORT jboolean JNICALL
 Java_app_organicmaps_sdk_bookmarks_data_BookmarkManager_nativeIsAsyncBookmarksLoadingInProgress(JNIEnv *, jclass)
 {
@@ -478,6 +611,28 @@ JNIEXPORT jlong JNICALL Java_app_organicmaps_sdk_bookmarks_data_BookmarkManager_
   return static_cast<jlong>(*it);
 }
 
+JNIEXPORT jobject JNICALL Java_app_organicmaps_sdk_bookmarks_data_BookmarkManager_nativeGetBookmarksPage(
+    JNIEnv * env, jobject, jlong catId, jint offset, jint count)
+{
+  auto const & ids = frm()->GetBookmarkManager().GetUserMarkIds(static_cast<kml::MarkGroupId>(catId));
+  auto const begin = std::min(static_cast<size_t>(std::max(offset, 0)), ids.size());
+  auto const size = std::min(static_cast<size_t>(std::max(count, 0)), ids.size() - begin);
+
+  auto it = ids.begin();
+  std::advance(it, begin);
+  std::vector<kml::MarkId> pageIds(it, std::next(it, size));
+  return MakeBookmarkPage(env, pageIds);
+}
+
+JNIEXPORT jobject JNICALL Java_app_organicmaps_sdk_bookmarks_data_BookmarkManager_nativeGetBookmarksByIds(
+    JNIEnv * env, jobject, jlongArray bmkIds)
+{
+  auto const size = env->GetArrayLength(bmkIds);
+  std::vector<kml::MarkId> ids(size);
+  env->GetLongArrayRegion(bmkIds, 0, size, reinterpret_cast<jlong *>(ids.data()));
+  return MakeBookmarkPage(env, ids);
+}
+
 static uint32_t shift(uint32_t v, uint8_t bitCount)
 {
   return v << bitCount;
@@ -43,8 +43,8 @@ public:
   ~HttpThread()
   {
     JNIEnv * env = jni::GetEnv();
-    static jmethodID const cancelMethodId = env->GetMethodID(m_klass, "cancel", "(Z)Z");
-    env->CallBooleanMethod(m_self, cancelMethodId, false);
+    static jmethodID const stopMethodId = env->GetMethodID(m_klass, "stop", "()V");
+    env->CallVoidMethod(m_self, stopMethodId);
     env->DeleteGlobalRef(m_self);
   }
 };
@@ -88,6 +88,26 @@ JNIEXPORT jboolean JNICALL Java_app_organicmaps_sdk_downloader_ChunkTask_nativeO
   return ret;
 }
 
+JNIEXPORT jboolean JNICALL Java_app_organicmaps_sdk_downloader_ChunkTask_nativeOnWriteBuffer(
+    JNIEnv * env, jclass clazz, jlong httpCallbackID, jlong beg, jobject data, jint size)
+{
+  downloader::IHttpThreadCallback * cb = reinterpret_cast<downloader::IHttpThreadCallback *>(httpCallbackID);
+  void const * buf = env->GetDirectBufferAddress(data);
+  ASSERT(buf, ());
+
+  bool ret = false;
+  try
+  {
+    ret = cb->OnWrite(beg, buf, static_cast<size_t>(size));
+  }
+  catch (std::exception const & ex)
+  {
+    LOG(LERROR, ("Failed to write chunk:", ex.what()));
+  }
+
+  return ret;
+}
+
 JNIEXPORT void JNICALL Java_app_organicmaps_sdk_downloader_ChunkTask_nativeOnFinish(JNIEnv * env, jclass clazz,
                                                                                     jlong httpCallbackID,
                                                                                     jlong httpCode, jlong beg,
@@ -22,6 +22,8 @@
 
 #include <chrono>
 #include <memory>
+#include <string>
+#include <unordered_map>
 #include <vector>
 
 using namespace std;
@@ -54,8 +56,8 @@ jmethodID g_popularityConstructor;
 
 // Implements 'MapSearchListener' java interface.
 jmethodID g_mapResultsMethod;
-jclass g_mapResultClass;
-jmethodID g_mapResultCtor;
+jclass g_mapResultsClass;
+jmethodID g_mapResultsCtor;
 
 jmethodID g_updateBookmarksResultsId;
 jmethodID g_endBookmarksResultsId;
@@ -175,21 +177,41 @@ void OnResults(Results results, vector<search::ProductInfo> const & productInfo,
   }
 }
 
-jobjectArray BuildJavaMapResults(vector<storage::DownloaderSearchResult> const & results)
+// Passes the results to Java as columns of a MapSearchResults, see MapSearchResults.java.
+jobject BuildJavaMapResults(vector<storage::DownloaderSearchResult> const & results)
 {
   JNIEnv * env = jni::GetEnv();
 
-  auto const count = static_cast<jsize>(results.size());
-  jobjectArray const res = env->NewObjectArray(count, g_mapResultClass, nullptr);
-  for (jsize i = 0; i < count; i++)
+  auto const count = results.size();
+  vector<jint> countries, matched;
+  countries.reserve(count);
+  matched.reserve(count);
+
+  // The same country is matched by several names, so all the strings are passed as a table of the unique ones.
+  vector<string> strings;
+  unordered_map<string, jint> stringIndices;
+  auto const addString = [&strings, &stringIndices](string const & str)
+  {
+    auto const [it, inserted] = stringIndices.emplace(str, static_cast<jint>(strings.size()));
+    if (inserted)
+      strings.push_back(str);
+    return it->second;
+  };
+
+  for (auto const & result : results)
   {
-    jni::TScopedLocalRef country(env, jni::ToJavaString(env, results[i].m_countryId));
-    jni::TScopedLocalRef matched(env, jni::ToJavaString(env, results[i].m_matchedName));
-    jni::TScopedLocalRef item(env, env->NewObject(g_mapResultClass, g_mapResultCtor, country.get(), matched.get()));
-    env->SetObjectArrayElement(res, i, item.get());
+    countries.push_back(addString(result.m_countryId));
+    matched.push_back(addString(result.m_matchedName));
   }
 
-  return res;
+  auto const length = static_cast<jsize>(count);
+  jni::ScopedLocalRef<jintArray> jCountries(env, env->NewIntArray(length));
+  env->SetIntArrayRegion(jCountries.get(), 0, length, countries.data());
+  jni::ScopedLocalRef<jintArray> jMatched(env, env->NewIntArray(length));
+  env->SetIntArrayRegion(jMatched.get(), 0, length, matched.data());
+  jni::TScopedLocalObjectArrayRef jStrings(env, jni::ToJavaStringArray(env, strings));
+
+  return env->NewObject(g_mapResultsClass, g_mapResultsCtor, jCountries.get(), jMatched.get(), jStrings.get());
 }
 
 void OnMapSearchResults(storage::DownloaderSearchResults const & results, long long timestamp)
@@ -199,7 +221,7 @@ void OnMapSearchResults(storage::DownloaderSearchResults const & results, long l
     return;
 
   JNIEnv * env = jni::GetEnv();
-  jni::TScopedLocalObjectArrayRef jResults(env, BuildJavaMapResults(results.m_results));
+  jni::TScopedLocalRef jResults(env, BuildJavaMapResults(results.m_results));
   env->CallVoidMethod(g_javaListener, g_mapResultsMethod, jResults.get(), static_cast<jlong>(timestamp),
                       results.m_endMarker);
 }
@@ -258,9 +280,9 @@ JNIEXPORT void JNICALL Java_app_organicmaps_sdk_search_SearchEngine_nativeInit(J
   g_popularityConstructor = jni::GetConstructorID(env, g_popularityClass, "(I)V");
 
   g_mapResultsMethod = jni::GetMethodID(env, g_javaListener, "onMapSearchResults",
-                                        "([Lapp/organicmaps/sdk/search/MapSearchListener$Result;JZ)V");
-  g_mapResultClass = jni::GetGlobalClassRef(env, "app/organicmaps/sdk/search/MapSearchListener$Result");
-  g_mapResultCtor = jni::GetConstructorID(env, g_mapResultClass, "(Ljava/lang/String;Ljava/lang/String;)V");
+                                        "(Lapp/organicmaps/sdk/search/MapSearchResults;JZ)V");
+  g_mapResultsClass = jni::GetGlobalClassRef(env, "app/organicmaps/sdk/search/MapSearchResults");
+  g_mapResultsCtor = jni::GetConstructorID(env, g_mapResultsClass, "([I[I[Ljava/lang/String;)V");
 
   g_updateBookmarksResultsId = jni::GetMethodID(env, g_javaListener, "onBookmarkSearchResultsUpdate", "([JJ)V");
   g_endBookmarksResultsId = jni::GetMethodID(env, g_javaListener, "onBookmarkSearchResultsEnd", "([JJ)V");
@@ -338,6 +360,11 @@ JNIEXPORT jboolean JNICALL Java_app_organicmaps_sdk_search_SearchEngine_nativeRu
 JNIEXPORT void JNICALL Java_app_organicmaps_sdk_search_SearchEngine_nativeShowResult(JNIEnv * env, jclass clazz,
                                                                                      jint index)
 {
+  if (index < 0 || static_cast<size_t>(index) >= g_results.GetCount())
+  {
+    LOG(LWARNING, ("Outdated search result index", index, "count", g_results.GetCount()));
+    return;
+  }
   g_framework->NativeFramework()->ShowSearchResult(g_results[index]);
 }
 
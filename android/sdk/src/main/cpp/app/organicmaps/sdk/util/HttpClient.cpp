@@ -81,6 +81,12 @@ void SetInt(ScopedEnv & env, jobject params, jfieldID const fieldId, int const v
   RethrowOnJniException(env);
 }
 
+void SetLong(ScopedEnv & env, jobject params, jfieldID const fieldId, jlong const value)
+{
+  env->SetLongField(params, fieldId, value);
+  RethrowOnJniException(env);
+}
+
 // Get string value from HttpClient.Params object, throws JniException.
 void GetString(ScopedEnv & env, jobject const params, jfieldID const fieldId, std::string & result)
 {
@@ -140,7 +146,8 @@ public:
                   {"followRedirects", GetHttpParamsFieldId(env, "followRedirects", "Z")},
                   {"loadHeaders", GetHttpParamsFieldId(env, "loadHeaders", "Z")},
                   {"httpResponseCode", GetHttpParamsFieldId(env, "httpResponseCode", "I")},
-                  {"timeoutMillisec", GetHttpParamsFieldId(env, "timeoutMillisec", "I")}};
+                  {"timeoutMillisec", GetHttpParamsFieldId(env, "timeoutMillisec", "I")},
+                  {"responseSink", GetHttpParamsFieldId(env, "responseSink", "J")}};
   }
 
   jfieldID GetId(std::string const & fieldName) const
@@ -213,6 +220,9 @@ bool HttpClient::RunHttpRequest()
     SetBoolean(env, httpParamsObject.get(), ids.GetId("followRedirects"), m_followRedirects);
     SetBoolean(env, httpParamsObject.get(), ids.GetId("loadHeaders"), m_loadHeaders);
     SetInt(env, httpParamsObject.get(), ids.GetId("timeoutMillisec"), static_cast<int>(m_timeoutSec * 1000));
+    // Response body is appended to m_serverResponse directly from Java, see nativeWriteResponse.
+    m_serverResponse.clear();
+    SetLong(env, httpParamsObject.get(), ids.GetId("responseSink"), reinterpret_cast<jlong>(&m_serverResponse));
 
     SetHeaders(env, httpParamsObject.get(), m_headers);
   }
@@ -228,7 +238,11 @@ bool HttpClient::RunHttpRequest()
   jni::ScopedLocalRef<jobject> const response(
       env.get(), env->CallStaticObjectMethod(g_httpClientClazz, httpClientClassRun, httpParamsObject.get()));
   if (jni::HandleJavaException(env.get()))
+  {
+    // The body could be passed partially before the failure.
+    m_serverResponse.clear();
     return false;
+  }
 
   try
   {
@@ -258,3 +272,16 @@ bool HttpClient::RunHttpRequest()
   return true;
 }
 }  // namespace platform
+
+extern "C"
+{
+JNIEXPORT void JNICALL Java_app_organicmaps_sdk_util_HttpClient_nativeWriteResponse(JNIEnv * env, jclass,
+                                                                                    jlong responseSink, jobject data,
+                                                                                    jint size)
+{
+  auto * response = reinterpret_cast<std::string *>(responseSink);
+  auto const * buffer = static_cast<char const *>(env->GetDirectBufferAddress(data));
+  ASSERT(buffer, ());
+  response->append(buffer, static_cast<size_t>(size));
+}
+}  // extern "C"
@@ -16,15 +16,18 @@ import app.organicmaps.sdk.location.SensorHelper;
 import app.organicmaps.sdk.maplayer.isolines.IsolinesManager;
 import app.organicmaps.sdk.maplayer.subway.SubwayManager;
 import app.organicmaps.sdk.maplayer.traffic.TrafficManager;
+import app.organicmaps.sdk.routing.RouteProgress;
 import app.organicmaps.sdk.routing.RoutingController;
 import app.organicmaps.sdk.search.SearchEngine;
 import app.organicmaps.sdk.settings.StoragePathManager;
 import app.organicmaps.sdk.sound.TtsPlayer;
 import app.organicmaps.sdk.util.Config;
+import app.organicmaps.sdk.util.HttpClient;
 import app.organicmaps.sdk.util.SharedPropertiesUtils;
 import app.organicmaps.sdk.util.StorageUtils;
 import app.organicmaps.sdk.util.log.Logger;
 import app.organicmaps.sdk.util.log.LogsManager;
+import java.io.File;
 import java.io.IOException;
 
 public final class OrganicMaps implements DefaultLifecycleObserver
@@ -99,6 +102,7 @@ public final class OrganicMaps implements DefaultLifecycleObserver
     LogsManager.INSTANCE.initFileLogging(mContext, mPreferences);
 
     Android7RootCertificateWorkaround.initializeIfNeeded(mContext);
+    HttpClient.installCache(new File(mContext.getCacheDir(), "http"));
 
     Icon.loadDefaultIcons(mContext.getResources(), mContext.getPackageName());
 
@@ -184,6 +188,7 @@ public final class OrganicMaps implements DefaultLifecycleObserver
     BookmarkManager.loadBookmarks();
     TtsPlayer.INSTANCE.initialize(mContext);
     RoutingController.get().initialize(mLocationHelper);
+    RouteProgress.get().initialize(mLocationHelper);
     TrafficManager.INSTANCE.initialize();
     mSubwayManager.initialize();
     mIsolinesManager.initialize();
@@ -0,0 +1,44 @@
+package app.organicmaps.sdk.bookmarks.data;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Categories changed by a single notification of the core, as positions in the list returned by
+ * {@link BookmarkManager#getCategories()}. Removed positions are in the descending order and are given
+ * before the removal, updated ones are given after it.
+ */
+public final class BookmarkCategoriesChanges
+{
+  private final long mRevision;
+  @NonNull
+  private final int[] mRemovedPositions;
+  @NonNull
+  private final int[] mUpdatedPositions;
+
+  BookmarkCategoriesChanges(long revision, @NonNull int[] removedPositions, @NonNull int[] updatedPositions)
+  {
+    mRevision = revision;
+    mRemovedPositions = removedPositions;
+    mUpdatedPositions = updatedPositions;
+  }
+
+  /**
+   * @return number which grows with every change of the categories.
+   */
+  public long getRevision()
+  {
+    return mRevision;
+  }
+
+  @NonNull
+  public int[] getRemovedPositions()
+  {
+    return mRemovedPositions;
+  }
+
+  @NonNull
+  public int[] getUpdatedPositions()
+  {
+    return mUpdatedPositions;
+  }
+}
@@ -22,7 +22,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @MainThread
 public enum BookmarkManager {
@@ -65,6 +67,8 @@ public enum BookmarkManager {
   @Nullable
   private OnElevationCurrentPositionChangedListener mOnElevationCurrentPositionChangedListener;
 
+  private int mBookmarksVersion;
+
   @Nullable
   private OnElevationActivePointChangedListener mOnElevationActivePointChangedListener;
 
@@ -126,7 +130,21 @@ public enum BookmarkManager {
   @MainThread
   public void onBookmarksChanged()
   {
-    updateCache();
+    ++mBookmarksVersion;
+  }
+
+  // Called from JNI.
+  @Keep
+  @SuppressWarnings("unused")
+  @MainThread
+  public void onCategoriesChanges(long revision, @NonNull long[] createdIds, @NonNull long[] updatedIds,
+                                  @NonNull long[] removedIds)
+  {
+    // The order of the new categories is known to the core only.
+    if (createdIds.length > 0)
+      updateCache();
+    else
+      getBookmarkCategoriesCache().applyChanges(revision, updatedIds, removedIds);
   }
 
   // Called from JNI.
@@ -145,6 +163,7 @@ public enum BookmarkManager {
   @MainThread
   public void onBookmarksLoadingFinished()
   {
+    ++mBookmarksVersion;
     updateCache();
     mCurrentDataProvider = new CacheBookmarkCategoriesDataProvider();
     for (BookmarksLoadingListener listener : mListeners)
@@ -280,6 +299,33 @@ public enum BookmarkManager {
     return nativeGetBookmarkIdByPosition(catId, positionInCategory);
   }
 
+  /**
+   * Returns up to count bookmarks of the category starting from the offset position.
+   * Use it instead of {@link BookmarkInfo} to show many bookmarks.
+   */
+  @NonNull
+  public BookmarkPage getBookmarksPage(long catId, int offset, int count)
+  {
+    return nativeGetBookmarksPage(catId, offset, count);
+  }
+
+  /**
+   * Returns the bookmarks with the given ids in the same order, e.g. of the sorted or found bookmarks.
+   */
+  @NonNull
+  public BookmarkPage getBookmarksByIds(@NonNull long[] bookmarkIds)
+  {
+    return nativeGetBookmarksByIds(bookmarkIds);
+  }
+
+  /**
+   * Returns the number which is changed after any bookmark is changed, e.g. to invalidate the cached pages.
+   */
+  public int getBookmarksVersion()
+  {
+    return mBookmarksVersion;
+  }
+
   @NonNull
   public Track getTrack(long trackId)
   {
@@ -339,6 +385,16 @@ public enum BookmarkManager {
     nativeLoadBookmarksFile(path, isTemporaryFile);
   }
 
+  /**
+   * Loads the files as a single batch, see {@link BookmarksImport}.
+   */
+  @MainThread
+  public void loadBookmarksFiles(@NonNull String[] paths, boolean isTemporaryFile)
+  {
+    Logger.d(TAG, "Loading " + paths.length + " bookmarks files");
+    nativeLoadBookmarksFiles(paths, isTemporaryFile);
+  }
+
   static @Nullable String getBookmarksFilenameFromUri(@NonNull ContentResolver resolver, @NonNull Uri uri)
   {
     String filename = null;
@@ -417,10 +473,7 @@ public enum BookmarkManager {
       if (filename == null)
       {
         Logger.w(TAG, "Could not find a supported file type in " + uri);
-        UiThread.run(() -> {
-          for (BookmarksLoadingListener listener : mListeners)
-            listener.onBookmarksFileUnsupported(uri);
-        });
+        notifyFileUnsupported(uri);
         return false;
       }
 
@@ -434,10 +487,7 @@ public enum BookmarkManager {
     catch (IOException | SecurityException e)
     {
       Logger.e(TAG, "Could not download bookmarks file from " + uri, e);
-      UiThread.run(() -> {
-        for (BookmarksLoadingListener listener : mListeners)
-          listener.onBookmarksFileDownloadFailed(uri, e.toString());
-      });
+      notifyFileDownloadFailed(uri, e.toString());
       return false;
     }
   }
@@ -445,8 +495,26 @@ public enum BookmarkManager {
   @WorkerThread
   public void importBookmarksFiles(@NonNull ContentResolver resolver, @NonNull List<Uri> uris, @NonNull File tempDir)
   {
-    for (Uri uri : uris)
-      importBookmarksFile(resolver, uri, tempDir);
+    if (uris.size() == 1)
+      importBookmarksFile(resolver, uris.get(0), tempDir);
+    else
+      new BookmarksImport(resolver, uris, tempDir, null).run();
+  }
+
+  void notifyFileUnsupported(@NonNull Uri uri)
+  {
+    UiThread.run(() -> {
+      for (BookmarksLoadingListener listener : mListeners)
+        listener.onBookmarksFileUnsupported(uri);
+    });
+  }
+
+  void notifyFileDownloadFailed(@NonNull Uri uri, @NonNull String error)
+  {
+    UiThread.run(() -> {
+      for (BookmarksLoadingListener listener : mListeners)
+        listener.onBookmarksFileDownloadFailed(uri, error);
+    });
   }
 
   public boolean isAsyncBookmarksLoadingInProgress()
@@ -758,6 +826,12 @@ public enum BookmarkManager {
 
   private native long nativeGetBookmarkIdByPosition(long catId, int position);
 
+  @NonNull
+  private native BookmarkPage nativeGetBookmarksPage(long catId, int offset, int count);
+
+  @NonNull
+  private native BookmarkPage nativeGetBookmarksByIds(@NonNull long[] bookmarkIds);
+
   @NonNull
   private native Track nativeGetTrack(long trackId, Class<Track> trackClazz);
 
@@ -802,6 +876,8 @@ public enum BookmarkManager {
 
   private static native void nativeLoadBookmarksFile(@NonNull String path, boolean isTemporaryFile);
 
+  private static native void nativeLoadBookmarksFiles(@NonNull String[] paths, boolean isTemporaryFile);
+
   private static native boolean nativeIsAsyncBookmarksLoadingInProgress();
 
   private static native boolean nativeIsUsedCategoryName(@NonNull String name);
@@ -955,6 +1031,13 @@ public enum BookmarkManager {
   {
     @NonNull
     private final List<BookmarkCategory> mCategories = new ArrayList<>();
+    // The same view is returned every time, so the users can tell if they show the cached list itself.
+    @NonNull
+    private final List<BookmarkCategory> mCategoriesView = Collections.unmodifiableList(mCategories);
+    // Positions of the categories in mCategories by their ids.
+    @NonNull
+    private final Map<Long, Integer> mPositions = new HashMap<>();
+    private long mRevision;
     @NonNull
     private final List<DataChangedListener> mListeners = new ArrayList<>();
 
@@ -962,13 +1045,74 @@ public enum BookmarkManager {
     {
       mCategories.clear();
       mCategories.addAll(categories);
+      updatePositions();
       notifyChanged();
     }
 
+    /**
+     * Replaces the updated categories and drops the removed ones, the changes older than the applied ones
+     * are skipped.
+     */
+    void applyChanges(long revision, @NonNull long[] updatedIds, @NonNull long[] removedIds)
+    {
+      if (revision <= mRevision)
+        return;
+      mRevision = revision;
+
+      final List<Integer> removed = new ArrayList<>(removedIds.length);
+      for (long id : removedIds)
+      {
+        final Integer position = mPositions.get(id);
+        if (position != null)
+          removed.add(position);
+      }
+      Collections.sort(removed, Collections.reverseOrder());
+      for (int position : removed)
+        mCategories.remove(position);
+      if (!removed.isEmpty())
+        updatePositions();
+
+      final List<Integer> updated = new ArrayList<>(updatedIds.length);
+      for (long id : updatedIds)
+      {
+        final Integer position = mPositions.get(id);
+        if (position == null)
+          continue;
+        mCategories.set(position, BookmarkManager.INSTANCE.nativeGetBookmarkCategory(id));
+        updated.add(position);
+      }
+
+      if (!removed.isEmpty() || !updated.isEmpty())
+        notifyChanged(new BookmarkCategoriesChanges(revision, toArray(removed), toArray(updated)));
+    }
+
     @NonNull
     public List<BookmarkCategory> getCategories()
     {
-      return Collections.unmodifiableList(mCategories);
+      return mCategoriesView;
+    }
+
+    @Nullable
+    BookmarkCategory getCategoryById(long categoryId)
+    {
+      final Integer position = mPositions.get(categoryId);
+      return position != null ? mCategories.get(position) : null;
+    }
+
+    private void updatePositions()
+    {
+      mPositions.clear();
+      for (int i = 0; i < mCategories.size(); ++i)
+        mPositions.put(mCategories.get(i).getId(), i);
+    }
+
+    @NonNull
+    private static int[] toArray(@NonNull List<Integer> list)
+    {
+      final int[] array = new int[list.size()];
+      for (int i = 0; i < array.length; ++i)
+        array[i] = list.get(i);
+      return array;
     }
 
     public void registerListener(@NonNull DataChangedListener listener)
@@ -993,5 +1137,11 @@ public enum BookmarkManager {
       for (DataChangedListener item : mListeners)
         item.onChanged();
     }
+
+    private void notifyChanged(@NonNull BookmarkCategoriesChanges changes)
+    {
+      for (DataChangedListener item : mListeners)
+        item.onChanged(changes);
+    }
   }
 }
@@ -0,0 +1,85 @@
+package app.organicmaps.sdk.bookmarks.data;
+
+import androidx.annotation.Keep;
+import androidx.annotation.NonNull;
+import app.organicmaps.sdk.Framework;
+import app.organicmaps.sdk.util.Distance;
+
+/**
+ * Bookmarks fetched by a single JNI call, see {@link BookmarkManager#getBookmarksPage(long, int, int)} and
+ * {@link BookmarkManager#getBookmarksByIds(long[])}. Fields are kept in the primitive arrays,
+ * names and feature types are indices in the table of the unique strings.
+ * <p>
+ * Unlike {@link BookmarkInfo}, the address is not resolved, use {@link BookmarkManager#getBookmarkAddress(long)}
+ * for the bookmarks which need it.
+ */
+// Called from JNI.
+@Keep
+@SuppressWarnings("unused")
+public final class BookmarkPage
+{
+  @NonNull
+  private final long[] mIds;
+  @NonNull
+  private final double[] mMerX;
+  @NonNull
+  private final double[] mMerY;
+  @NonNull
+  private final int[] mColors;
+  @NonNull
+  private final int[] mIcons;
+  @NonNull
+  private final int[] mNames;
+  @NonNull
+  private final int[] mFeatureTypes;
+  @NonNull
+  private final String[] mStrings;
+
+  public BookmarkPage(@NonNull long[] ids, @NonNull double[] merX, @NonNull double[] merY, @NonNull int[] colors,
+                      @NonNull int[] icons, @NonNull int[] names, @NonNull int[] featureTypes,
+                      @NonNull String[] strings)
+  {
+    mIds = ids;
+    mMerX = merX;
+    mMerY = merY;
+    mColors = colors;
+    mIcons = icons;
+    mNames = names;
+    mFeatureTypes = featureTypes;
+    mStrings = strings;
+  }
+
+  public int size()
+  {
+    return mIds.length;
+  }
+
+  public long getBookmarkId(int index)
+  {
+    return mIds[index];
+  }
+
+  @NonNull
+  public String getName(int index)
+  {
+    return mStrings[mNames[index]];
+  }
+
+  @NonNull
+  public String getFeatureType(int index)
+  {
+    return mStrings[mFeatureTypes[index]];
+  }
+
+  @NonNull
+  public Icon getIcon(int index)
+  {
+    return new Icon(mColors[index], mIcons[index]);
+  }
+
+  @NonNull
+  public Distance getDistance(int index, double lat, double lon)
+  {
+    return Framework.nativeGetDistanceAndAzimuth(mMerX[index], mMerY[index], lat, lon, 0.0).getDistance();
+  }
+}
@@ -0,0 +1,286 @@
+package app.organicmaps.sdk.bookmarks.data;
+
+import android.content.ContentResolver;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+import android.os.Process;
+import android.os.SystemClock;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import app.organicmaps.sdk.util.concurrency.CancellationToken;
+import app.organicmaps.sdk.util.concurrency.Lane;
+import app.organicmaps.sdk.util.concurrency.ThreadPool;
+import app.organicmaps.sdk.util.concurrency.UiThread;
+import app.organicmaps.sdk.util.log.Logger;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe
+ * <p>
+ * Imports a batch of bookmarks files, e.g. all files of a folder. Several files are read from the content
+ * providers at once, then the core loads all of them as a single batch, so the loading listeners of
+ * {@link BookmarkManager} are notified once per batch instead of once per file.
+ * <p>
+ * Content is streamed into the temporary files because the core parses files by path, and KMZ archives
+ * need random access.
+ */
+public final class BookmarksImport
+{
+  private static final String TAG = BookmarksImport.class.getSimpleName();
+
+  private static final int PARALLELISM = 4;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final long PROGRESS_INTERVAL_MS = 200;
+
+  private static Lane sLane;
+
+  public interface Listener
+  {
+    /**
+     * Bytes total grows while the files are opened, it doesn't include the files with unknown size.
+     */
+    @MainThread
+    default void onImportProgress(int filesRead, int filesTotal, long bytesRead, long bytesTotal)
+    {}
+
+    /**
+     * @param filesImported number of the files passed to the core for loading.
+     */
+    @MainThread
+    void onImportFinished(int filesImported, boolean isCancelled);
+  }
+
+  @NonNull
+  private final ContentResolver mResolver;
+  @NonNull
+  private final List<Uri> mUris;
+  @NonNull
+  private final File mTempDir;
+  @Nullable
+  private final Listener mListener;
+  @NonNull
+  private final CancellationToken mToken;
+
+  // Names of the temporary files, guarded by itself.
+  private final Set<String> mFileNames = new HashSet<>();
+  private final AtomicInteger mFilesRead = new AtomicInteger();
+  private final AtomicLong mBytesRead = new AtomicLong();
+  private final AtomicLong mBytesTotal = new AtomicLong();
+  private final AtomicLong mProgressReportedAt = new AtomicLong();
+  // Only the first failure of each kind is reported to the loading listeners.
+  private final AtomicBoolean mUnsupportedReported = new AtomicBoolean();
+  private final AtomicBoolean mFailureReported = new AtomicBoolean();
+
+  public BookmarksImport(@NonNull ContentResolver resolver, @NonNull List<Uri> uris, @NonNull File tempDir,
+                         @Nullable Listener listener)
+  {
+    this(resolver, uris, tempDir, listener, new CancellationToken());
+  }
+
+  /**
+   * @param token cancels the import, it could be cancelled before the import is created, e.g. while the files
+   *              are listed.
+   */
+  public BookmarksImport(@NonNull ContentResolver resolver, @NonNull List<Uri> uris, @NonNull File tempDir,
+                         @Nullable Listener listener, @NonNull CancellationToken token)
+  {
+    mResolver = resolver;
+    mUris = new ArrayList<>(uris);
+    mTempDir = tempDir;
+    mListener = listener;
+    mToken = token;
+  }
+
+  @NonNull
+  private static synchronized Lane getLane()
+  {
+    if (sLane == null)
+      sLane = ThreadPool.createLane("BookmarksImport", PARALLELISM, 64, Process.THREAD_PRIORITY_BACKGROUND);
+    return sLane;
+  }
+
+  /**
+   * Stops reading the files, the files which are read already are deleted. Has no effect if the core is
+   * loading the batch already.
+   */
+  public void cancel()
+  {
+    mToken.cancel();
+  }
+
+  public boolean isCancelled()
+  {
+    return mToken.isCancelled();
+  }
+
+  /**
+   * Reads the files and passes them to the core, blocks until all the files are read.
+   */
+  @WorkerThread
+  public void run()
+  {
+    Logger.i(TAG, "Importing " + mUris.size() + " bookmarks files");
+    final List<Future<File>> futures = new ArrayList<>(mUris.size());
+    for (Uri uri : mUris)
+    {
+      if (mToken.isCancelled())
+        break;
+      futures.add(getLane().submit(() -> readFile(uri), Lane.Priority.NORMAL));
+    }
+
+    final List<File> files = new ArrayList<>(futures.size());
+    for (Future<File> future : futures)
+    {
+      try
+      {
+        final File file = future.get();
+        if (file != null)
+          files.add(file);
+      }
+      catch (ExecutionException e)
+      {
+        Logger.e(TAG, "Failed to read bookmarks file", e);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        mToken.cancel();
+        break;
+      }
+    }
+
+    final boolean isCancelled = mToken.isCancelled();
+    if (isCancelled)
+    {
+      Logger.i(TAG, "Import of bookmarks files is cancelled");
+      for (File file : files)
+        file.delete();
+      files.clear();
+    }
+
+    final String[] paths = new String[files.size()];
+    for (int i = 0; i < paths.length; ++i)
+      paths[i] = files.get(i).getAbsolutePath();
+
+    UiThread.run(() -> {
+      if (paths.length > 0)
+        BookmarkManager.INSTANCE.loadBookmarksFiles(paths, true /* isTemporaryFile */);
+      if (mListener != null)
+        mListener.onImportFinished(paths.length, isCancelled);
+    });
+  }
+
+  @Nullable
+  private File readFile(@NonNull Uri uri)
+  {
+    if (mToken.isCancelled())
+      return null;
+
+    File file = null;
+    try
+    {
+      final String filename = BookmarkManager.getBookmarksFilenameFromUri(mResolver, uri);
+      if (filename == null)
+      {
+        Logger.w(TAG, "Could not find a supported file type in " + uri);
+        if (mUnsupportedReported.compareAndSet(false, true))
+          BookmarkManager.INSTANCE.notifyFileUnsupported(uri);
+        return null;
+      }
+
+      file = new File(mTempDir, reserveFileName(filename));
+      try (AssetFileDescriptor descriptor = mResolver.openAssetFileDescriptor(uri, "r"))
+      {
+        if (descriptor == null)
+          throw new FileNotFoundException("Provider of " + uri + " has crashed");
+        final long length = descriptor.getLength();
+        if (length != AssetFileDescriptor.UNKNOWN_LENGTH)
+          mBytesTotal.addAndGet(length);
+        try (InputStream in = descriptor.createInputStream(); OutputStream out = new FileOutputStream(file))
+        {
+          copy(in, out);
+        }
+      }
+      mFilesRead.incrementAndGet();
+      reportProgress(true);
+      return file;
+    }
+    catch (IOException | SecurityException e)
+    {
+      if (file != null)
+        file.delete();
+      if (e instanceof InterruptedIOException)
+        return null;
+      Logger.e(TAG, "Could not read bookmarks file from " + uri, e);
+      if (mFailureReported.compareAndSet(false, true))
+        BookmarkManager.INSTANCE.notifyFileDownloadFailed(uri, e.toString());
+      return null;
+    }
+  }
+
+  private void copy(@NonNull InputStream in, @NonNull OutputStream out) throws IOException
+  {
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    int count;
+    while ((count = in.read(buffer)) != -1)
+    {
+      if (mToken.isCancelled())
+        throw new InterruptedIOException("Import is cancelled");
+      out.write(buffer, 0, count);
+      mBytesRead.addAndGet(count);
+      reportProgress(false);
+    }
+  }
+
+  // Files from the different folders could have the same names.
+  @NonNull
+  private String reserveFileName(@NonNull String filename)
+  {
+    final int dot = filename.lastIndexOf('.');
+    final String name = dot > 0 ? filename.substring(0, dot) : filename;
+    final String ext = dot > 0 ? filename.substring(dot) : "";
+    synchronized (mFileNames)
+    {
+      String result = filename;
+      for (int i = 2; mFileNames.contains(result) || new File(mTempDir, result).exists(); ++i)
+        result = name + " (" + i + ")" + ext;
+      mFileNames.add(result);
+      return result;
+    }
+  }
+
+  private void reportProgress(boolean force)
+  {
+    if (mListener == null)
+      return;
+
+    final long now = SystemClock.elapsedRealtime();
+    final long reportedAt = mProgressReportedAt.get();
+    if (!force && now - reportedAt < PROGRESS_INTERVAL_MS)
+      return;
+    if (!mProgressReportedAt.compareAndSet(reportedAt, now) && !force)
+      return;
+
+    final int filesRead = mFilesRead.get();
+    final long bytesRead = mBytesRead.get();
+    final long bytesTotal = mBytesTotal.get();
+    UiThread.run(() -> mListener.onImportProgress(filesRead, mUris.size(), bytesRead, bytesTotal));
+  }
+}
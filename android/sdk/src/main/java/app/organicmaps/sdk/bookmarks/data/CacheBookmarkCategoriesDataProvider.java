@@ -12,10 +12,9 @@ class CacheBookmarkCategoriesDataProvider implements BookmarkCategoriesDataProvi
   {
     BookmarkManager.BookmarkCategoriesCache cache = BookmarkManager.INSTANCE.getBookmarkCategoriesCache();
 
-    List<BookmarkCategory> categories = cache.getCategories();
-    for (BookmarkCategory category : categories)
-      if (category.getId() == categoryId)
-        return category;
+    final BookmarkCategory category = cache.getCategoryById(categoryId);
+    if (category != null)
+      return category;
 
     return BookmarkManager.INSTANCE.nativeGetBookmarkCategory(categoryId);
   }
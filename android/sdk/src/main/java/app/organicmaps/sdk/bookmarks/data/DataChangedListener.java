@@ -1,6 +1,16 @@
 package app.organicmaps.sdk.bookmarks.data;
 
+import androidx.annotation.NonNull;
+
 public interface DataChangedListener
 {
   void onChanged();
+
+  /**
+   * Called instead of {@link #onChanged()} when only some of the categories were changed.
+   */
+  default void onChanged(@NonNull BookmarkCategoriesChanges changes)
+  {
+    onChanged();
+  }
 }
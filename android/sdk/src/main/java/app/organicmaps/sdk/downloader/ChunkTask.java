@@ -1,32 +1,43 @@
 package app.organicmaps.sdk.downloader;
 
-import android.os.AsyncTask;
+import android.os.SystemClock;
 import android.util.Base64;
 import androidx.annotation.Keep;
-import app.organicmaps.sdk.util.Constants;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import app.organicmaps.sdk.util.HttpTransport;
 import app.organicmaps.sdk.util.StringUtils;
 import app.organicmaps.sdk.util.Utils;
+import app.organicmaps.sdk.util.concurrency.UiThread;
 import app.organicmaps.sdk.util.log.Logger;
-import java.io.BufferedInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // Used from JNI.
 @Keep
-@SuppressWarnings({"unused", "deprecation"}) // https://github.com/organicmaps/organicmaps/issues/3632
-class ChunkTask extends AsyncTask<Void, byte[], Integer>
+@SuppressWarnings("unused")
+class ChunkTask
 {
   private static final String TAG = ChunkTask.class.getSimpleName();
 
-  private static final int TIMEOUT_IN_SECONDS = 10;
-
   private final long mHttpCallbackID;
   private final String mUrl;
   private final long mBeg;
@@ -41,9 +52,27 @@ class ChunkTask extends AsyncTask<Void, byte[], Integer>
   private static final int INVALID_URL = -5;
   private static final int CANCELLED = -6;
 
-  private long mDownloadedBytes;
+  // Every request is retried from the last received byte, if possible.
+  private static final int MAX_ATTEMPTS = 3;
 
-  private static final Executor sExecutors = Executors.newFixedThreadPool(4);
+  // Accessed from the UI thread only, used for the in-memory downloads.
+  private long mDownloadedBytes;
+  private volatile boolean mCancelled;
+  // The first error of any part of the chunk, HTTP_OK while there are no errors.
+  private final AtomicInteger mResult = new AtomicInteger(HttpURLConnection.HTTP_OK);
+
+  // The number of threads is limited by the number of mirrors and DownloadTuner.MAX_STREAMS per chunk.
+  private static final ExecutorService sExecutor = Executors.newCachedThreadPool();
+
+  // Chunks of the file downloads are written to the disk on the single I/O thread instead of the UI thread.
+  // Data is read into the recycled direct buffers, which are passed to the native code without copying.
+  private static final int WRITE_BUFFERS_COUNT = 16;
+  private static final BlockingQueue<ByteBuffer> sBufferPool = new ArrayBlockingQueue<>(WRITE_BUFFERS_COUNT);
+  private static final AtomicInteger sAllocatedBuffers = new AtomicInteger();
+  private static final ExecutorService sWriter = Executors.newSingleThreadExecutor();
+  // Native callback is not thread safe: writes are made on sWriter, while nativeOnFinish() is called
+  // and the native request is destroyed on the UI thread.
+  private static final Object sNativeLock = new Object();
 
   public ChunkTask(long httpCallbackID, String url, long beg, long end, long expectedFileSize, byte[] postBody)
   {
@@ -55,42 +84,113 @@ class ChunkTask extends AsyncTask<Void, byte[], Integer>
     mPostBody = postBody;
   }
 
-  @Override
-  protected void onPreExecute()
-  {}
+  void start()
+  {
+    sExecutor.execute(this::run);
+  }
+
+  // Called from JNI when the native request is destroyed.
+  void stop()
+  {
+    mCancelled = true;
+    // Wait for the chunk which is being written right now, nothing is written after the task is cancelled.
+    synchronized (sNativeLock)
+    {}
+  }
+
+  private void run()
+  {
+    try
+    {
+      final URL url = new URL(mUrl);
+      final DownloadTuner tuner = DownloadTuner.get(url.getHost());
+      if (isRange())
+        downloadRange(url, tuner);
+      else
+        new Part(url, tuner, mBeg, mEnd).download();
+    }
+    catch (final MalformedURLException ex)
+    {
+      Logger.e(TAG, "Invalid url: " + mUrl, ex);
+      fail(INVALID_URL);
+    }
+
+    if (isFileDownload())
+      waitForPendingWrites();
+
+    // In-memory downloads post their data to the UI thread, so the result is posted after it.
+    UiThread.run(this::finish);
+  }
 
-  @Override
-  protected void onPostExecute(Integer httpOrErrorCode)
+  private void finish()
   {
-    // It seems like onPostExecute can be called (from GUI thread queue)
-    // after the task was cancelled in destructor of HttpThread.
+    // The task can be cancelled in destructor of HttpThread before this call.
     // Reproduced by Samsung testers: touch Try Again for many times from
     // start activity when no connection is present.
-
-    if (!isCancelled())
-      nativeOnFinish(mHttpCallbackID, httpOrErrorCode, mBeg, mEnd);
+    synchronized (sNativeLock)
+    {
+      if (!mCancelled)
+        nativeOnFinish(mHttpCallbackID, mResult.get(), mBeg, mEnd);
+    }
   }
 
-  @Override
-  protected void onProgressUpdate(byte[]... data)
+  /**
+   * Splits the range into parts which are downloaded in parallel.
+   */
+  private void downloadRange(@NonNull URL url, @NonNull DownloadTuner tuner)
   {
-    if (!isCancelled())
+    final long size = mEnd - mBeg + 1;
+    final int streams = tuner.getStreams(size);
+    final long partSize = size / streams;
+    final long startTime = SystemClock.elapsedRealtime();
+
+    final List<Future<?>> parts = new ArrayList<>(streams - 1);
+    for (int i = 1; i < streams; ++i)
     {
-      // Use progress event to save downloaded bytes.
-      if (nativeOnWrite(mHttpCallbackID, mBeg + mDownloadedBytes, data[0], data[0].length))
-        mDownloadedBytes += data[0].length;
-      else
+      final long beg = mBeg + i * partSize;
+      final long end = (i == streams - 1) ? mEnd : beg + partSize - 1;
+      final Part part = new Part(url, tuner, beg, end);
+      parts.add(sExecutor.submit(part::download));
+    }
+
+    new Part(url, tuner, mBeg, streams == 1 ? mEnd : mBeg + partSize - 1).download();
+
+    for (Future<?> part : parts)
+    {
+      try
+      {
+        part.get();
+      }
+      catch (ExecutionException | InterruptedException ex)
       {
-        // Cancel downloading and notify about error.
-        cancel(false);
-        nativeOnFinish(mHttpCallbackID, WRITE_EXCEPTION, mBeg, mEnd);
+        Logger.e(TAG, "Failed to download a part of the chunk for URL: " + mUrl, ex);
+        fail(IO_EXCEPTION);
       }
     }
+
+    if (mResult.get() == HttpURLConnection.HTTP_OK)
+      tuner.onChunkFinished(streams, size, SystemClock.elapsedRealtime() - startTime);
   }
 
-  void start()
+  private boolean isFileDownload()
+  {
+    return mExpectedFileSize > 0;
+  }
+
+  private boolean isRange()
+  {
+    return isFileDownload() && mEnd >= mBeg;
+  }
+
+  private boolean isAborted()
   {
-    executeOnExecutor(sExecutors, (Void[]) null);
+    return mCancelled || mResult.get() != HttpURLConnection.HTTP_OK;
+  }
+
+  // Stops all the parts of the chunk, the first error is reported.
+  private void fail(int httpOrErrorCode)
+  {
+    mResult.compareAndSet(HttpURLConnection.HTTP_OK, httpOrErrorCode);
   }
 
   private static long parseContentRange(String contentRangeValue)
@@ -113,164 +213,320 @@ class ChunkTask extends AsyncTask<Void, byte[], Integer>
     return -1;
   }
 
-  @Override
-  protected Integer doInBackground(Void... p)
+  /**
+   * A part of the chunk downloaded by a single connection.
+   */
+  private class Part
   {
-    HttpURLConnection urlConnection = null;
-    /*
-     * TODO improve reliability of connections & handle EOF errors.
-     * <a href="http://stackoverflow.com/questions/19258518/android-httpurlconnection-eofexception">asd</a>
-     */
+    @NonNull
+    private final URL mPartUrl;
+    @NonNull
+    private final DownloadTuner mTuner;
+    private final long mPartEnd;
+    // Offset of the next byte to read.
+    private long mPosition;
+
+    Part(@NonNull URL url, @NonNull DownloadTuner tuner, long beg, long end)
+    {
+      mPartUrl = url;
+      mTuner = tuner;
+      mPosition = beg;
+      mPartEnd = end;
+    }
 
-    try
+    // Whole file is downloaded from start without the Range header.
+    private boolean isWholeFile()
     {
-      final URL url = new URL(mUrl);
-      urlConnection = (HttpURLConnection) url.openConnection();
+      return mPosition == 0 && mPartEnd < 0;
+    }
 
-      if (isCancelled())
-        return CANCELLED;
+    void download()
+    {
+      int result = IO_EXCEPTION;
+      for (int attempt = 0; attempt < MAX_ATTEMPTS && !isAborted(); ++attempt)
+      {
+        result = downloadOnce();
+        if (result != IO_EXCEPTION)
+          break;
+
+        mTuner.onStreamFailed();
+        // Only the file chunks can be continued from the last received byte.
+        if (!isFileDownload())
+          break;
+      }
 
-      Android7RootCertificateWorkaround.applyFixIfNeeded(urlConnection);
+      if (result != HttpURLConnection.HTTP_OK && result != CANCELLED)
+        fail(result);
+    }
 
-      urlConnection.setUseCaches(false);
-      urlConnection.setConnectTimeout(TIMEOUT_IN_SECONDS * 1000);
-      urlConnection.setReadTimeout(TIMEOUT_IN_SECONDS * 1000);
+    private int downloadOnce()
+    {
+      HttpURLConnection urlConnection = null;
+      InputStream stream = null;
+      // Connection is returned to the keep-alive pool only if the response is read completely.
+      boolean isReusable = false;
 
-      // Provide authorization credentials
-      String creds = url.getUserInfo();
-      if (creds != null)
+      try
       {
-        String value = "Basic " + Base64.encodeToString(creds.getBytes(), Base64.DEFAULT);
-        urlConnection.setRequestProperty("Authorization", value);
-      }
+        urlConnection = HttpTransport.open(mPartUrl);
 
-      // use Range header only if we don't download whole file from start
-      if (!(mBeg == 0 && mEnd < 0))
-      {
-        if (mEnd > 0)
-          urlConnection.setRequestProperty("Range", StringUtils.formatUsingUsLocale("bytes=%d-%d", mBeg, mEnd));
-        else
-          urlConnection.setRequestProperty("Range", StringUtils.formatUsingUsLocale("bytes=%d-", mBeg));
-      }
+        if (isAborted())
+          return CANCELLED;
 
-      final Map<?, ?> requestParams = urlConnection.getRequestProperties();
+        final int timeout = mTuner.getTimeoutMs();
+        urlConnection.setUseCaches(false);
+        urlConnection.setConnectTimeout(timeout);
+        urlConnection.setReadTimeout(timeout);
 
-      if (mPostBody != null)
-      {
-        urlConnection.setDoOutput(true);
-        urlConnection.setFixedLengthStreamingMode(mPostBody.length);
-
-        final DataOutputStream os = new DataOutputStream(urlConnection.getOutputStream());
-        os.write(mPostBody);
-        os.flush();
-        mPostBody = null;
-        Utils.closeSafely(os);
-      }
+        // Provide authorization credentials
+        String creds = mPartUrl.getUserInfo();
+        if (creds != null)
+        {
+          String value = "Basic " + Base64.encodeToString(creds.getBytes(), Base64.DEFAULT);
+          urlConnection.setRequestProperty("Authorization", value);
+        }
 
-      if (isCancelled())
-        return CANCELLED;
+        // use Range header only if we don't download whole file from start
+        if (!isWholeFile())
+        {
+          if (mPartEnd > 0)
+            urlConnection.setRequestProperty("Range",
+                                             StringUtils.formatUsingUsLocale("bytes=%d-%d", mPosition, mPartEnd));
+          else
+            urlConnection.setRequestProperty("Range", StringUtils.formatUsingUsLocale("bytes=%d-", mPosition));
+        }
 
-      final int err = urlConnection.getResponseCode();
-      if (err == HttpURLConnection.HTTP_NOT_FOUND)
-        return err;
+        final Map<?, ?> requestParams = urlConnection.getRequestProperties();
+        final long requestTime = SystemClock.elapsedRealtime();
 
-      // @TODO We can handle redirect (301, 302 and 307) here and display redirected page to user,
-      // to avoid situation when downloading is always failed by "unknown" reason
-      // When we didn't ask for chunks, code should be 200
-      // When we asked for a chunk, code should be 206
-      final boolean isChunk = !(mBeg == 0 && mEnd < 0);
-      if ((isChunk && err != HttpURLConnection.HTTP_PARTIAL) || (!isChunk && err != HttpURLConnection.HTTP_OK))
-      {
-        // we've set error code so client should be notified about the error
-        Logger.w(TAG, "Error for " + urlConnection.getURL() + ": Server replied with code " + err
-                          + ", aborting download. " + Utils.mapPrettyPrint(requestParams));
-        return INCONSISTENT_FILE_SIZE;
-      }
+        if (mPostBody != null)
+        {
+          urlConnection.setDoOutput(true);
+          urlConnection.setFixedLengthStreamingMode(mPostBody.length);
+
+          final DataOutputStream os = new DataOutputStream(urlConnection.getOutputStream());
+          os.write(mPostBody);
+          os.flush();
+          mPostBody = null;
+          Utils.closeSafely(os);
+        }
 
-      // Check for content size - are we downloading requested file or some router's garbage?
-      if (mExpectedFileSize > 0)
-      {
-        long contentLength = parseContentRange(urlConnection.getHeaderField("Content-Range"));
-        if (contentLength < 0)
-          contentLength = urlConnection.getContentLength();
+        if (isAborted())
+          return CANCELLED;
+
+        final int err = urlConnection.getResponseCode();
+        mTuner.onResponse(SystemClock.elapsedRealtime() - requestTime);
+        if (err == HttpURLConnection.HTTP_NOT_FOUND)
+          return err;
 
-        // Check even if contentLength is invalid (-1), in this case it's not our server!
-        if (contentLength != mExpectedFileSize)
+        // @TODO We can handle redirect (301, 302 and 307) here and display redirected page to user,
+        // to avoid situation when downloading is always failed by "unknown" reason
+        // When we didn't ask for chunks, code should be 200
+        // When we asked for a chunk, code should be 206
+        final boolean isChunk = !isWholeFile();
+        if ((isChunk && err != HttpURLConnection.HTTP_PARTIAL) || (!isChunk && err != HttpURLConnection.HTTP_OK))
         {
           // we've set error code so client should be notified about the error
-          Logger.w(TAG, "Error for " + urlConnection.getURL() + ": Invalid file size received (" + contentLength
-                            + ") while expecting " + mExpectedFileSize + ". Aborting download.");
+          Logger.w(TAG, "Error for " + urlConnection.getURL() + ": Server replied with code " + err
+                            + ", aborting download. " + Utils.mapPrettyPrint(requestParams));
           return INCONSISTENT_FILE_SIZE;
         }
-        // @TODO Else display received web page to user - router is redirecting us to some page
-      }
 
-      return downloadFromStream(new BufferedInputStream(urlConnection.getInputStream(), 128 * Constants.KB));
+        // Check for content size - are we downloading requested file or some router's garbage?
+        if (mExpectedFileSize > 0)
+        {
+          long contentLength = parseContentRange(urlConnection.getHeaderField("Content-Range"));
+          if (contentLength < 0)
+            contentLength = urlConnection.getContentLength();
+
+          // Check even if contentLength is invalid (-1), in this case it's not our server!
+          if (contentLength != mExpectedFileSize)
+          {
+            // we've set error code so client should be notified about the error
+            Logger.w(TAG, "Error for " + urlConnection.getURL() + ": Invalid file size received (" + contentLength
+                              + ") while expecting " + mExpectedFileSize + ". Aborting download.");
+            return INCONSISTENT_FILE_SIZE;
+          }
+          // @TODO Else display received web page to user - router is redirecting us to some page
+        }
+
+        stream = urlConnection.getInputStream();
+        final long readStart = mPosition;
+        final long readTime = SystemClock.elapsedRealtime();
+        final int bufferSize = mTuner.getBufferSize();
+        final int result = isFileDownload() ? readToFile(Channels.newChannel(stream), bufferSize)
+                                            : readToMemory(stream, bufferSize);
+        if (result == HttpURLConnection.HTTP_OK)
+        {
+          isReusable = true;
+          mTuner.onStreamFinished(mPosition - readStart, SystemClock.elapsedRealtime() - readTime);
+        }
+        return result;
+      }
+      catch (final IOException ex)
+      {
+        Logger.d(TAG, "IOException in downloadOnce for URL: " + mUrl + " at " + mPosition, ex);
+        return IO_EXCEPTION;
+      }
+      finally
+      {
+        if (stream != null)
+          Utils.closeSafely(stream);
+        if (urlConnection != null)
+          HttpTransport.release(urlConnection, isReusable);
+      }
     }
-    catch (final MalformedURLException ex)
+
+    /**
+     * Reads the stream into the pooled buffers and passes them to the I/O thread.
+     * @throws IOException
+     */
+    private int readToFile(ReadableByteChannel channel, int bufferSize) throws IOException
     {
-      Logger.e(TAG, "Invalid url: " + mUrl, ex);
-      return INVALID_URL;
+      int readBytes = 0;
+      while (readBytes != -1)
+      {
+        if (isAborted())
+          return CANCELLED;
+
+        final ByteBuffer buffer = obtainBuffer();
+        if (buffer == null)
+          return CANCELLED;
+        buffer.limit(bufferSize);
+        try
+        {
+          // Fill the whole buffer to reduce the number of native writes.
+          while (buffer.hasRemaining() && (readBytes = channel.read(buffer)) != -1)
+          {
+            if (isAborted())
+              return CANCELLED;
+          }
+        }
+        finally
+        {
+          // Data which was read before an exception is written too, the next attempt continues from it.
+          submitBuffer(buffer);
+        }
+      }
+
+      // Connection can be closed by the server before the whole part is sent.
+      if (mPartEnd >= 0 && mPosition != mPartEnd + 1)
+        return IO_EXCEPTION;
+      return HttpURLConnection.HTTP_OK;
     }
-    catch (final IOException ex)
+
+    private void submitBuffer(ByteBuffer buffer)
     {
-      Logger.d(TAG, "IOException in doInBackground for URL: " + mUrl, ex);
-      return IO_EXCEPTION;
+      buffer.flip();
+      if (!buffer.hasRemaining() || isAborted())
+      {
+        releaseBuffer(buffer);
+        return;
+      }
+
+      final long offset = mPosition;
+      mPosition += buffer.remaining();
+      sWriter.execute(() -> write(buffer, offset));
     }
-    finally
+
+    /**
+     * Passes the data to the native code on the UI thread, used for the in-memory downloads.
+     * @throws IOException
+     */
+    private int readToMemory(InputStream stream, int bufferSize) throws IOException
     {
-      if (urlConnection != null)
-        urlConnection.disconnect();
+      final byte[] tempBuf = new byte[bufferSize];
+
+      int readBytes;
+      while ((readBytes = stream.read(tempBuf)) > 0)
+      {
+        if (isAborted())
+          return CANCELLED;
+
+        final byte[] chunk = Arrays.copyOf(tempBuf, readBytes);
+        mPosition += readBytes;
+        UiThread.run(() -> writeOnUiThread(chunk));
+      }
+
+      // -1 - means the end of the stream (success), else - some error occurred
+      return (readBytes == -1 ? HttpURLConnection.HTTP_OK : IO_EXCEPTION);
     }
   }
 
-  private Integer downloadFromStream(InputStream stream)
+  private void writeOnUiThread(byte[] data)
   {
-    // Because of timeouts in InputStream.read (for bad connection),
-    // try to introduce dynamic buffer size to read in one query.
-    final int[] arrSize = {128, 32, 1};
-    int ret = IO_EXCEPTION;
+    if (isAborted())
+      return;
+
+    if (nativeOnWrite(mHttpCallbackID, mBeg + mDownloadedBytes, data, data.length))
+      mDownloadedBytes += data.length;
+    else
+      fail(WRITE_EXCEPTION);
+  }
 
-    for (int size : arrSize)
+  // Runs on the I/O thread.
+  private void write(ByteBuffer buffer, long offset)
+  {
+    try
     {
-      try
-      {
-        ret = downloadFromStreamImpl(stream, size * Constants.KB);
-        break;
-      }
-      catch (final IOException ex)
+      synchronized (sNativeLock)
       {
-        Logger.e(TAG, "IOException in downloadFromStream for buffer size: " + size, ex);
+        if (isAborted())
+          return;
+
+        if (!nativeOnWriteBuffer(mHttpCallbackID, offset, buffer, buffer.remaining()))
+          fail(WRITE_EXCEPTION);
       }
     }
-
-    Utils.closeSafely(stream);
-    return ret;
+    finally
+    {
+      releaseBuffer(buffer);
+    }
   }
 
-  /**
-   * @throws IOException
-   */
-  private int downloadFromStreamImpl(InputStream stream, int bufferSize) throws IOException
+  private void waitForPendingWrites()
   {
-    final byte[] tempBuf = new byte[bufferSize];
-
-    int readBytes;
-    while ((readBytes = stream.read(tempBuf)) > 0)
+    try
     {
-      if (isCancelled())
-        return CANCELLED;
+      // The I/O thread is sequential, so all the chunks of this task are written when the empty job is done.
+      sWriter.submit(() -> {}).get();
+    }
+    catch (ExecutionException | InterruptedException ex)
+    {
+      Logger.e(TAG, "Failed to wait for the pending writes for URL: " + mUrl, ex);
+      fail(WRITE_EXCEPTION);
+    }
+  }
 
-      final byte[] chunk = new byte[readBytes];
-      System.arraycopy(tempBuf, 0, chunk, 0, readBytes);
+  @Nullable
+  private static ByteBuffer obtainBuffer()
+  {
+    final ByteBuffer buffer = sBufferPool.poll();
+    if (buffer != null)
+      return buffer;
+
+    if (sAllocatedBuffers.getAndIncrement() < WRITE_BUFFERS_COUNT)
+      return ByteBuffer.allocateDirect(DownloadTuner.MAX_BUFFER_SIZE);
+    sAllocatedBuffers.decrementAndGet();
 
-      publishProgress(chunk);
+    try
+    {
+      // All the buffers are in use, wait until the I/O thread writes some of them.
+      return sBufferPool.take();
     }
+    catch (InterruptedException ex)
+    {
+      return null;
+    }
+  }
 
-    // -1 - means the end of the stream (success), else - some error occurred
-    return (readBytes == -1 ? HttpURLConnection.HTTP_OK : IO_EXCEPTION);
+  private static void releaseBuffer(ByteBuffer buffer)
+  {
+    buffer.clear();
+    sBufferPool.offer(buffer);
   }
 
+  private static native boolean nativeOnWriteBuffer(long httpCallbackID, long beg, ByteBuffer data, int size);
   private static native boolean nativeOnWrite(long httpCallbackID, long beg, byte[] data, long size);
   private static native void nativeOnFinish(long httpCallbackID, long httpCode, long beg, long end);
 }
@@ -0,0 +1,136 @@
+package app.organicmaps.sdk.downloader;
+
+import androidx.annotation.NonNull;
+import app.organicmaps.sdk.util.Constants;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the measured round trip time and throughput of the connections to a mirror and tunes the downloading
+ * of the chunks from it: the number of parallel Range requests per chunk, the read buffer size and the timeouts.
+ * <p>
+ * The number of parallel requests is adjusted by hill climbing: it grows while the chunk throughput grows
+ * and steps back when an extra request did not pay off. Any failed request halves it.
+ * Tuners are kept per host, so all the chunks downloaded from the same mirror share the measurements.
+ */
+final class DownloadTuner
+{
+  static final int MIN_STREAMS = 1;
+  static final int MAX_STREAMS = 4;
+  // Chunks are not split into parts smaller than this.
+  static final long MIN_PART_SIZE = 256 * Constants.KB;
+
+  static final int MIN_BUFFER_SIZE = 8 * Constants.KB;
+  static final int MAX_BUFFER_SIZE = 128 * Constants.KB;
+
+  private static final int DEFAULT_TIMEOUT_MS = 10_000;
+  private static final int MIN_TIMEOUT_MS = 5_000;
+  private static final int MAX_TIMEOUT_MS = 30_000;
+  // Weight of the new sample in the moving averages.
+  private static final double SMOOTHING = 0.3;
+  // Extra request is kept only when it gives at least 10% more throughput.
+  private static final double MIN_GAIN = 1.1;
+
+  private static final Map<String, DownloadTuner> sTuners = new HashMap<>();
+
+  // Moving averages, negative until the first sample.
+  private double mRttMs = -1;
+  private double mStreamBytesPerSec = -1;
+
+  private int mStreams = 2;
+  private int mLastStreams;
+  private double mLastChunkBytesPerSec = -1;
+
+  private DownloadTuner() {}
+
+  @NonNull
+  static synchronized DownloadTuner get(@NonNull String host)
+  {
+    DownloadTuner tuner = sTuners.get(host);
+    if (tuner == null)
+    {
+      tuner = new DownloadTuner();
+      sTuners.put(host, tuner);
+    }
+    return tuner;
+  }
+
+  /**
+   * @return number of parallel Range requests to download a chunk of the given size.
+   */
+  synchronized int getStreams(long chunkSize)
+  {
+    final long maxByParts = Math.max(MIN_STREAMS, chunkSize / MIN_PART_SIZE);
+    return (int) Math.min(mStreams, maxByParts);
+  }
+
+  /**
+   * @return read size which takes about 100 ms for a single connection.
+   */
+  synchronized int getBufferSize()
+  {
+    if (mStreamBytesPerSec < 0)
+      return MAX_BUFFER_SIZE;
+    final int size = Integer.highestOneBit((int) Math.min(mStreamBytesPerSec / 10, MAX_BUFFER_SIZE));
+    return Math.max(MIN_BUFFER_SIZE, size);
+  }
+
+  synchronized int getTimeoutMs()
+  {
+    if (mRttMs < 0)
+      return DEFAULT_TIMEOUT_MS;
+    return (int) Math.max(MIN_TIMEOUT_MS, Math.min(MAX_TIMEOUT_MS, mRttMs * 10));
+  }
+
+  /**
+   * Called when the response headers are received.
+   * @param rttMs time from the request start to the response code.
+   */
+  synchronized void onResponse(long rttMs)
+  {
+    mRttMs = average(mRttMs, rttMs);
+  }
+
+  /**
+   * Called when a single connection has read all its data.
+   */
+  synchronized void onStreamFinished(long bytes, long durationMs)
+  {
+    if (durationMs > 0)
+      mStreamBytesPerSec = average(mStreamBytesPerSec, bytes * 1000.0 / durationMs);
+  }
+
+  /**
+   * Called when all the parts of a chunk are downloaded.
+   */
+  synchronized void onChunkFinished(int streams, long bytes, long durationMs)
+  {
+    if (durationMs <= 0)
+      return;
+
+    final double bytesPerSec = bytes * 1000.0 / durationMs;
+    if (mLastChunkBytesPerSec > 0 && streams > mLastStreams && bytesPerSec < mLastChunkBytesPerSec * MIN_GAIN)
+      mStreams = Math.max(MIN_STREAMS, streams - 1);
+    else if (streams < mLastStreams)
+      mStreams = streams; // Has just stepped back, measure once more before the next probe.
+    else
+      mStreams = Math.min(MAX_STREAMS, streams + 1);
+
+    mLastStreams = streams;
+    mLastChunkBytesPerSec = bytesPerSec;
+  }
+
+  /**
+   * Called when a connection failed or timed out, flaky links are loaded less.
+   */
+  synchronized void onStreamFailed()
+  {
+    mStreams = Math.max(MIN_STREAMS, mStreams / 2);
+    mLastChunkBytesPerSec = -1;
+  }
+
+  private static double average(double average, double sample)
+  {
+    return average < 0 ? sample : average + SMOOTHING * (sample - average);
+  }
+}
@@ -4,7 +4,9 @@ import androidx.annotation.Keep;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @UiThread
 public final class MapManager
@@ -36,8 +38,21 @@ public final class MapManager
     // Called from JNI.
     @Keep
     void onProgress(String countryId, long localSize, long remoteSize);
+
+    /**
+     * Called instead of {@link #onProgress} for the callbacks subscribed by {@link #subscribeBatched}.
+     * @param batch the latest progress of the countries changed since the previous batch.
+     */
+    default void onProgressBatch(@NonNull List<ProgressData> batch)
+    {
+      for (ProgressData progress : batch)
+        onProgress(progress.countryId(), progress.localSize(), progress.remoteSize());
+    }
   }
 
+  public record ProgressData(String countryId, long localSize, long remoteSize)
+  {}
+
   public interface CurrentCountryChangedListener
   {
     // Called from JNI.
@@ -46,8 +61,37 @@ public final class MapManager
     void onCurrentCountryChanged(String countryId);
   }
 
+  // Slot ID to the aggregator of the callbacks subscribed by subscribeBatched().
+  private static final Map<Integer, ProgressAggregator> sAggregators = new HashMap<>();
+
   private MapManager() {}
 
+  /**
+   * Registers {@code callback} of storage status changed like {@link #nativeSubscribe(StorageCallback)}, but
+   * the progress is passed to {@link StorageCallback#onProgressBatch} at most once per frame.
+   * @return slot ID which should be used to unsubscribe in {@link #unsubscribe(int)}.
+   */
+  public static int subscribeBatched(@NonNull StorageCallback callback)
+  {
+    final ProgressAggregator aggregator = new ProgressAggregator(callback);
+    final int slot = nativeSubscribe(aggregator);
+    sAggregators.put(slot, aggregator);
+    return slot;
+  }
+
+  /**
+   * Unregisters storage status changed callback, the pending progress is dropped.
+   * @param slot Slot ID returned from {@link #subscribeBatched(StorageCallback)} or {@link
+   * #nativeSubscribe(StorageCallback)} while registering.
+   */
+  public static void unsubscribe(int slot)
+  {
+    final ProgressAggregator aggregator = sAggregators.remove(slot);
+    if (aggregator != null)
+      aggregator.cancel();
+    nativeUnsubscribe(slot);
+  }
+
   /**
    * Enqueues failed items under given {@code root} node in downloader.
    */
@@ -0,0 +1,83 @@
+package app.organicmaps.sdk.downloader;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces the progress of the countries between the frames, see {@link MapManager#subscribeBatched}.
+ * The latest progress of each changed country is passed once per frame, but not more often than
+ * {@link #INTERVAL_MS}. Status changes are passed at once, after the pending progress.
+ */
+@UiThread
+final class ProgressAggregator implements MapManager.StorageCallback, Choreographer.FrameCallback
+{
+  private static final long INTERVAL_MS = 100;
+
+  @NonNull
+  private final MapManager.StorageCallback mCallback;
+  @NonNull
+  private final Map<String, MapManager.ProgressData> mPending = new LinkedHashMap<>();
+  private boolean mScheduled;
+  private long mDispatchedAt;
+
+  ProgressAggregator(@NonNull MapManager.StorageCallback callback)
+  {
+    mCallback = callback;
+  }
+
+  @Override
+  public void onStatusChanged(List<MapManager.StorageCallbackData> data)
+  {
+    flush();
+    mCallback.onStatusChanged(data);
+  }
+
+  @Override
+  public void onProgress(String countryId, long localSize, long remoteSize)
+  {
+    mPending.put(countryId, new MapManager.ProgressData(countryId, localSize, remoteSize));
+    if (mScheduled)
+      return;
+
+    mScheduled = true;
+    final long delay = Math.max(0, mDispatchedAt + INTERVAL_MS - SystemClock.uptimeMillis());
+    Choreographer.getInstance().postFrameCallbackDelayed(this, delay);
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos)
+  {
+    mScheduled = false;
+    flush();
+  }
+
+  void cancel()
+  {
+    if (mScheduled)
+      Choreographer.getInstance().removeFrameCallback(this);
+    mScheduled = false;
+    mPending.clear();
+  }
+
+  private void flush()
+  {
+    if (mScheduled)
+    {
+      Choreographer.getInstance().removeFrameCallback(this);
+      mScheduled = false;
+    }
+    if (mPending.isEmpty())
+      return;
+
+    final List<MapManager.ProgressData> batch = new ArrayList<>(mPending.values());
+    mPending.clear();
+    mDispatchedAt = SystemClock.uptimeMillis();
+    mCallback.onProgressBatch(batch);
+  }
+}
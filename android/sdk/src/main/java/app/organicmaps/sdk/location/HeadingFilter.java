@@ -0,0 +1,94 @@
+package app.organicmaps.sdk.location;
+
+/**
+ * Smooths the compass heading and drops the changes which are too small to be noticed.
+ * <p>
+ * The heading is averaged as a unit vector, so the values near 0 and 2 * pi are not mixed up. The weight of a new
+ * sample grows with its difference from the smoothed heading: the jitter of a still device is damped, while
+ * a real turn is followed without a lag.
+ */
+public final class HeadingFilter
+{
+  private static final double TWO_PI = 2.0 * Math.PI;
+
+  // Weight of a new sample which is close to the smoothed heading.
+  private final double mMinAlpha;
+  // Difference from the smoothed heading which is followed at once.
+  private final double mTurnRadians;
+  // Smallest change of the heading which is passed to the listeners.
+  private final double mThresholdRadians;
+
+  private double mSin;
+  private double mCos;
+  private double mHeading = Double.NaN;
+  private double mLastPassed = Double.NaN;
+
+  /**
+   * @param minAlpha weight in range (0, 1] of a sample close to the smoothed heading, 1 disables the smoothing.
+   * @param turnDegrees difference from the smoothed heading which is followed without the smoothing.
+   * @param thresholdDegrees smallest change which is passed, 0 passes all of them.
+   */
+  public HeadingFilter(double minAlpha, double turnDegrees, double thresholdDegrees)
+  {
+    if (minAlpha <= 0 || minAlpha > 1)
+      throw new IllegalArgumentException("minAlpha must be in (0, 1]: " + minAlpha);
+    mMinAlpha = minAlpha;
+    mTurnRadians = Math.toRadians(Math.max(turnDegrees, 1.0));
+    mThresholdRadians = Math.toRadians(Math.max(thresholdDegrees, 0.0));
+  }
+
+  /**
+   * Adds a sample.
+   * @param heading heading in radians.
+   * @return whether the smoothed heading is changed enough to be passed to the listeners.
+   */
+  public boolean add(double heading)
+  {
+    final double sin = Math.sin(heading);
+    final double cos = Math.cos(heading);
+    if (Double.isNaN(mHeading))
+    {
+      mSin = sin;
+      mCos = cos;
+    }
+    else
+    {
+      final double alpha = mMinAlpha + (1.0 - mMinAlpha) * Math.min(1.0, difference(heading, mHeading) / mTurnRadians);
+      mSin += alpha * (sin - mSin);
+      mCos += alpha * (cos - mCos);
+    }
+
+    mHeading = Math.atan2(mSin, mCos);
+    if (mHeading < 0.0)
+      mHeading += TWO_PI;
+
+    if (!Double.isNaN(mLastPassed) && difference(mHeading, mLastPassed) < mThresholdRadians)
+      return false;
+    mLastPassed = mHeading;
+    return true;
+  }
+
+  /**
+   * @return the last heading passed to the listeners in range [0, 2 * pi), NaN if there is none.
+   */
+  public double getHeading()
+  {
+    return mLastPassed;
+  }
+
+  /**
+   * Forgets the previous samples, e.g. if the display is rotated.
+   */
+  public void reset()
+  {
+    mHeading = Double.NaN;
+    mLastPassed = Double.NaN;
+  }
+
+  // Absolute difference of the angles in range [0, pi].
+  private static double difference(double a, double b)
+  {
+    final double diff = Math.abs(a - b) % TWO_PI;
+    return diff > Math.PI ? TWO_PI - diff : diff;
+  }
+}
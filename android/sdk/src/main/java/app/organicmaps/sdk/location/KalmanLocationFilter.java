@@ -0,0 +1,118 @@
+package app.organicmaps.sdk.location;
+
+import android.location.Location;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import app.organicmaps.sdk.util.GeoUtils;
+import app.organicmaps.sdk.util.LocationUtils;
+import app.organicmaps.sdk.util.log.Logger;
+
+/**
+ * Smooths the positions by a Kalman filter and drops the jumps, e.g. of the reflected signals in urban canyons.
+ * <p>
+ * The position is predicted by the speed and the bearing of the previous location, which are measured by GNSS
+ * much better than the position itself, so the filtered position doesn't lag behind a moving vehicle. Then it is
+ * corrected by the new location with respect to its accuracy. The uncertainty of the prediction grows with time.
+ * <p>
+ * A location which is too far from the predicted position for its accuracy is dropped. Several jumps in a row,
+ * or a long gap between the locations, mean a real move, e.g. after a tunnel, and the filter starts over.
+ */
+public class KalmanLocationFilter implements LocationFilter
+{
+  private static final String TAG = LocationState.LOCATION_TAG;
+
+  // Uncertainty of the predicted position, meters per second.
+  private static final double PROCESS_NOISE_MPS = 3.0;
+  // Used for the GNSS locations without the accuracy, see LocationUtils.isAccuracySatisfied().
+  private static final double DEFAULT_ACCURACY_M = 20.0;
+  // A location is a jump if it is farther from the predicted position than this number of standard deviations.
+  private static final double JUMP_SIGMAS = 3.0;
+  // Smaller deviations are never considered as jumps.
+  private static final double MIN_JUMP_M = 30.0;
+  private static final int MAX_JUMPS_IN_ROW = 3;
+  private static final double MAX_GAP_S = 10.0;
+
+  // Filtered position and its variance in square meters.
+  private double mLat;
+  private double mLon;
+  private double mVariance = -1.0;
+  @Nullable
+  private Location mLast;
+  private int mJumpsInRow;
+
+  @Nullable
+  @Override
+  public Location process(@NonNull Location location)
+  {
+    final double accuracy = location.getAccuracy() > 0 ? location.getAccuracy() : DEFAULT_ACCURACY_M;
+    final Location last = mLast;
+    final double dt = last != null ? LocationUtils.getTimeDiff(last, location) : 0;
+    if (last == null || mVariance < 0 || dt < 0 || dt > MAX_GAP_S)
+      return restart(location, accuracy);
+
+    // Prediction.
+    double lat = mLat;
+    double lon = mLon;
+    if (last.hasSpeed() && last.hasBearing())
+    {
+      final double distance = last.getSpeed() * dt;
+      final double bearing = Math.toRadians(last.getBearing());
+      lat += Math.toDegrees(distance * Math.cos(bearing) / GeoUtils.EARTH_RADIUS_METERS);
+      lon += Math.toDegrees(distance * Math.sin(bearing)
+                            / (GeoUtils.EARTH_RADIUS_METERS * Math.cos(Math.toRadians(lat))));
+    }
+    final double variance = mVariance + dt * PROCESS_NOISE_MPS * PROCESS_NOISE_MPS;
+
+    final double deviation = GeoUtils.distanceOnEarth(lat, lon, location.getLatitude(), location.getLongitude());
+    if (deviation > MIN_JUMP_M && deviation > JUMP_SIGMAS * Math.sqrt(variance + accuracy * accuracy))
+    {
+      if (++mJumpsInRow < MAX_JUMPS_IN_ROW)
+      {
+        Logger.d(TAG, "Dropped a jump of " + Math.round(deviation) + " m, location = " + location);
+        return null;
+      }
+      Logger.d(TAG, "Too many jumps in a row, restarting");
+      return restart(location, accuracy);
+    }
+    mJumpsInRow = 0;
+
+    // Correction.
+    final double gain = variance / (variance + accuracy * accuracy);
+    mLat = lat + gain * (location.getLatitude() - lat);
+    mLon = lon + gain * (location.getLongitude() - lon);
+    mVariance = (1.0 - gain) * variance;
+    mLast = location;
+    return toLocation(location);
+  }
+
+  @Override
+  public void reset()
+  {
+    mVariance = -1.0;
+    mLast = null;
+    mJumpsInRow = 0;
+  }
+
+  @NonNull
+  private Location restart(@NonNull Location location, double accuracy)
+  {
+    mLat = location.getLatitude();
+    mLon = location.getLongitude();
+    mVariance = accuracy * accuracy;
+    mLast = location;
+    mJumpsInRow = 0;
+    return location;
+  }
+
+  // The speed, the bearing and the time are kept from the provider.
+  @NonNull
+  private Location toLocation(@NonNull Location location)
+  {
+    final Location result = new Location(location);
+    result.setLatitude(mLat);
+    result.setLongitude(mLon);
+    if (location.hasAccuracy())
+      result.setAccuracy((float) Math.sqrt(mVariance));
+    return result;
+  }
+}
@@ -0,0 +1,24 @@
+package app.organicmaps.sdk.location;
+
+import android.location.Location;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Processes the locations of the provider before they are passed to the listeners and to the core.
+ * See {@link LocationHelper#setLocationFilter(LocationFilter)}.
+ */
+public interface LocationFilter
+{
+  /**
+   * @param location location from the provider, which satisfies the accuracy checks.
+   * @return location to be passed further, null if it should be dropped.
+   */
+  @Nullable
+  Location process(@NonNull Location location);
+
+  /**
+   * Forgets the previous locations, e.g. if the provider is changed.
+   */
+  void reset();
+}
@@ -9,6 +9,7 @@ import android.content.Context;
 import android.location.Location;
 import android.location.LocationManager;
 import android.os.Handler;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresPermission;
@@ -47,6 +48,11 @@ public class LocationHelper implements BaseLocationProvider.Listener
 
   @Nullable
   private Location mSavedLocation;
+  // The last location of the provider before the filter.
+  @Nullable
+  private Location mLastRawLocation;
+  @Nullable
+  private LocationFilter mLocationFilter = new KalmanLocationFilter();
   private MapObject mMyPosition;
   @NonNull
   private BaseLocationProvider mLocationProvider;
@@ -79,6 +85,9 @@ public class LocationHelper implements BaseLocationProvider.Listener
     @Override
     public void onSatelliteStatusChanged(@NonNull GnssStatusCompat status)
     {
+      if (!Logger.isLoggable(TAG, Log.DEBUG))
+        return;
+
       int used = 0;
       boolean fixed = false;
       for (int i = 0; i < status.getSatelliteCount(); i++)
@@ -187,7 +196,8 @@ public class LocationHelper implements BaseLocationProvider.Listener
   @Override
   public void onLocationChanged(@NonNull Location location)
   {
-    Logger.d(TAG, "provider = " + mLocationProvider.getClass().getSimpleName() + " location = " + location);
+    if (Logger.isLoggable(TAG, Log.DEBUG))
+      Logger.d(TAG, "provider = " + mLocationProvider.getClass().getSimpleName() + " location = " + location);
 
     if (!isActive())
     {
@@ -201,20 +211,50 @@ public class LocationHelper implements BaseLocationProvider.Listener
       return;
     }
 
-    if (mSavedLocation != null)
+    // The accuracy of the filtered location is better, so the new location is compared with the raw one.
+    if (mLastRawLocation != null)
     {
-      if (!LocationUtils.isLocationBetterThanLast(location, mSavedLocation))
+      if (!LocationUtils.isLocationBetterThanLast(location, mLastRawLocation))
       {
-        Logger.d(TAG, "The new " + location + " is worse than the last " + mSavedLocation);
+        if (Logger.isLoggable(TAG, Log.DEBUG))
+          Logger.d(TAG, "The new " + location + " is worse than the last " + mLastRawLocation);
         return;
       }
     }
+    mLastRawLocation = location;
+
+    // The simulated route is exact.
+    Location filtered = location;
+    if (mLocationFilter != null && !(mLocationProvider instanceof RouteSimulationProvider))
+    {
+      filtered = mLocationFilter.process(location);
+      if (filtered == null)
+        return;
+    }
 
-    mSavedLocation = location;
+    mSavedLocation = filtered;
     mMyPosition = null;
     notifyLocationUpdated();
   }
 
+  /**
+   * Sets the filter of the locations of the provider.
+   * @param filter filter to be used, null to pass the locations as is.
+   */
+  @UiThread
+  public void setLocationFilter(@Nullable LocationFilter filter)
+  {
+    Logger.i(TAG, "filter = " + (filter != null ? filter.getClass().getSimpleName() : null));
+    mLocationFilter = filter;
+    resetLocationFilter();
+  }
+
+  private void resetLocationFilter()
+  {
+    if (mLocationFilter != null)
+      mLocationFilter.reset();
+  }
+
   // Used by GoogleFusedLocationProvider.
   @SuppressWarnings("unused")
   @Override
@@ -250,6 +290,7 @@ public class LocationHelper implements BaseLocationProvider.Listener
                       + " downgrading to use native provider");
     mLocationProvider.stop();
     mLocationProvider = new AndroidNativeProvider(mContext, this);
+    resetLocationFilter();
     mActive = true;
     mLocationProvider.start(mInterval);
   }
@@ -261,6 +302,7 @@ public class LocationHelper implements BaseLocationProvider.Listener
     Logger.i(TAG);
     mLocationProvider.stop();
     mLocationProvider = new RouteSimulationProvider(mContext, this, points);
+    resetLocationFilter();
     mActive = true;
     mLocationProvider.start(mInterval);
   }
@@ -380,6 +422,7 @@ public class LocationHelper implements BaseLocationProvider.Listener
     unsubscribeFromGnssStatusUpdates();
     mSensorHelper.stop();
     mHandler.removeCallbacks(mLocationTimeoutRunnable);
+    resetLocationFilter();
     mActive = false;
   }
 
@@ -5,6 +5,7 @@ import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -14,14 +15,51 @@ import app.organicmaps.sdk.util.log.Logger;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+/**
+ * Provides the heading of the device. The heading is smoothed by the {@link HeadingFilter}, and the listeners get
+ * only the changes which are above its threshold.
+ * <p>
+ * The sampling rate follows the state:
+ * <ul>
+ *   <li>the UI rate while there are listeners and the device is turned;</li>
+ *   <li>the normal rate while there are listeners and the heading is not changed, e.g. in a car mount;</li>
+ *   <li>the normal rate with batching while there are no listeners, i.e. no map or compass is visible. The saved
+ *   north is kept up to date for the time the map is shown again.</li>
+ * </ul>
+ */
 public class SensorHelper implements SensorEventListener
 {
   private static final String TAG = SensorHelper.class.getSimpleName();
 
+  // The heading is considered steady if it is not changed over the threshold during this time.
+  private static final long STEADY_TIMEOUT_MS = 3000;
+  private static final int MAX_REPORT_LATENCY_US = 1_000_000;
+
+  private enum Rate
+  {
+    FAST(SensorManager.SENSOR_DELAY_UI, 0),
+    STEADY(SensorManager.SENSOR_DELAY_NORMAL, 0),
+    BATCHED(SensorManager.SENSOR_DELAY_NORMAL, MAX_REPORT_LATENCY_US);
+
+    final int samplingPeriod;
+    final int maxReportLatencyUs;
+
+    Rate(int samplingPeriod, int maxReportLatencyUs)
+    {
+      this.samplingPeriod = samplingPeriod;
+      this.maxReportLatencyUs = maxReportLatencyUs;
+    }
+  }
+
   @NonNull
   private final SensorManager mSensorManager;
   @Nullable
   private Sensor mRotationVectorSensor;
+  @Nullable
+  private Rate mRate;
+  @NonNull
+  private HeadingFilter mHeadingFilter = new HeadingFilter(0.25, 30.0, 1.0);
+  private long mLastChangeTime;
 
   private final float[] mRotationMatrix = new float[9];
   private final float[] mRotationValues = new float[3];
@@ -65,7 +103,18 @@ public class SensorHelper implements SensorEventListener
     SensorManager.getOrientation(mRotationMatrix, mRotationValues);
 
     // mRotationValues indexes: 0 - yaw (azimuth), 1 - pitch, 2 - roll.
-    mSavedNorth = LocationUtils.correctCompassAngle(mRotation, mRotationValues[0]);
+    final long now = SystemClock.elapsedRealtime();
+    if (!mHeadingFilter.add(LocationUtils.correctCompassAngle(mRotation, mRotationValues[0])))
+    {
+      if (mRate == Rate.FAST && now - mLastChangeTime > STEADY_TIMEOUT_MS)
+        updateRate();
+      return;
+    }
+
+    mLastChangeTime = now;
+    mSavedNorth = mHeadingFilter.getHeading();
+    if (mRate == Rate.STEADY)
+      updateRate();
     for (SensorListener listener : mListeners)
       listener.onCompassUpdated(mSavedNorth);
   }
@@ -92,9 +141,20 @@ public class SensorHelper implements SensorEventListener
   public void setRotation(int rotation)
   {
     Logger.i(TAG, "rotation = " + rotation);
+    if (mRotation != rotation)
+      mHeadingFilter.reset();
     mRotation = rotation;
   }
 
+  /**
+   * Replaces the filter of the heading, e.g. to pass all changes of the heading.
+   */
+  @UiThread
+  public void setHeadingFilter(@NonNull HeadingFilter filter)
+  {
+    mHeadingFilter = filter;
+  }
+
   /**
    * Registers listener to obtain compass updates.
    * @param listener listener to be registered.
@@ -104,7 +164,12 @@ public class SensorHelper implements SensorEventListener
   {
     Logger.d(TAG, "listener: " + listener + " count was: " + mListeners.size());
 
-    mListeners.add(listener);
+    if (mListeners.add(listener) && mListeners.size() == 1)
+    {
+      // Starts from the fast rate, the device is usually moved when the map is shown.
+      mLastChangeTime = SystemClock.elapsedRealtime();
+      updateRate();
+    }
     if (!Double.isNaN(mSavedNorth))
       listener.onCompassUpdated(mSavedNorth);
   }
@@ -117,7 +182,8 @@ public class SensorHelper implements SensorEventListener
   public void removeListener(@NonNull SensorListener listener)
   {
     Logger.d(TAG, "listener: " + listener + " count was: " + mListeners.size());
-    mListeners.remove(listener);
+    if (mListeners.remove(listener) && mListeners.isEmpty())
+      updateRate();
   }
 
   public void start()
@@ -142,7 +208,8 @@ public class SensorHelper implements SensorEventListener
     }
 
     Logger.d(TAG);
-    mSensorManager.registerListener(this, mRotationVectorSensor, SensorManager.SENSOR_DELAY_UI);
+    mLastChangeTime = SystemClock.elapsedRealtime();
+    updateRate();
   }
 
   public void stop()
@@ -153,5 +220,29 @@ public class SensorHelper implements SensorEventListener
 
     mSensorManager.unregisterListener(this);
     mRotationVectorSensor = null;
+    mRate = null;
+  }
+
+  // Registers the sensor again if the rate should be changed.
+  private void updateRate()
+  {
+    if (mRotationVectorSensor == null)
+      return;
+
+    final Rate rate;
+    if (mListeners.isEmpty())
+      rate = Rate.BATCHED;
+    else if (SystemClock.elapsedRealtime() - mLastChangeTime > STEADY_TIMEOUT_MS)
+      rate = Rate.STEADY;
+    else
+      rate = Rate.FAST;
+    if (rate == mRate)
+      return;
+
+    Logger.d(TAG, "rate = " + rate);
+    if (mRate != null)
+      mSensorManager.unregisterListener(this);
+    mRate = rate;
+    mSensorManager.registerListener(this, mRotationVectorSensor, rate.samplingPeriod, rate.maxReportLatencyUs);
   }
 }
@@ -0,0 +1,151 @@
+package app.organicmaps.sdk.routing;
+
+import android.location.Location;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import app.organicmaps.sdk.Framework;
+import app.organicmaps.sdk.location.LocationHelper;
+import app.organicmaps.sdk.location.LocationListener;
+import org.chromium.base.ObserverList;
+
+/**
+ * Publishes the progress of the navigation. The route following info is fetched from the core once per location
+ * fix and the same snapshot is passed to all listeners, so the screens, the notification and the car screens
+ * don't fetch it each on its own. The end of the route is passed by the snapshot as well.
+ * <p>
+ * The location updates are received only while there are listeners.
+ */
+@UiThread
+public final class RouteProgress implements LocationListener
+{
+  private static final RouteProgress sInstance = new RouteProgress();
+
+  /**
+   * Route following info at a location fix.
+   */
+  public static final class Snapshot
+  {
+    // Increases with every snapshot, the listeners could skip the snapshots they have seen already.
+    public final long sequence;
+    // Null if the core has no info, e.g. the route is finished.
+    @Nullable
+    public final RoutingInfo info;
+    public final boolean isRouteFinished;
+
+    private Snapshot(long sequence, @Nullable RoutingInfo info, boolean isRouteFinished)
+    {
+      this.sequence = sequence;
+      this.info = info;
+      this.isRouteFinished = isRouteFinished;
+    }
+  }
+
+  public interface Listener
+  {
+    /**
+     * Called for each location fix while navigating.
+     */
+    void onRouteProgress(@NonNull Snapshot snapshot);
+  }
+
+  @Nullable
+  private LocationHelper mLocationHelper;
+  @NonNull
+  private final ObserverList<Listener> mListeners = new ObserverList<>();
+  @NonNull
+  private final ObserverList.RewindableIterator<Listener> mListenersIterator = mListeners.rewindableIterator();
+  @Nullable
+  private Snapshot mLastSnapshot;
+  private long mSequence;
+
+  private RouteProgress() {}
+
+  @NonNull
+  public static RouteProgress get()
+  {
+    return sInstance;
+  }
+
+  public void initialize(@NonNull LocationHelper locationHelper)
+  {
+    mLocationHelper = locationHelper;
+  }
+
+  /**
+   * Registers the listener. While navigating, the listener gets a snapshot at once if the location is known.
+   */
+  public void addListener(@NonNull Listener listener)
+  {
+    if (!mListeners.addObserver(listener))
+      return;
+
+    // The location helper passes the saved location at once, so the snapshot is published to the listener.
+    if (mListeners.size() == 1)
+      requireLocationHelper().addListener(this);
+    else if (RoutingController.get().isNavigating())
+      listener.onRouteProgress(fetch());
+  }
+
+  public void removeListener(@NonNull Listener listener)
+  {
+    if (!mListeners.removeObserver(listener))
+      return;
+
+    if (mListeners.isEmpty())
+    {
+      requireLocationHelper().removeListener(this);
+      mLastSnapshot = null;
+    }
+  }
+
+  /**
+   * Returns the last published snapshot of the current route, fetches it if there is none.
+   * Should be used between the location fixes instead of {@link Framework#nativeGetRouteFollowingInfo()}.
+   */
+  @Nullable
+  public Snapshot getLastSnapshot()
+  {
+    if (!RoutingController.get().isNavigating())
+      return null;
+    return mLastSnapshot != null ? mLastSnapshot : fetch();
+  }
+
+  @Override
+  public void onLocationUpdated(@NonNull Location location)
+  {
+    if (!RoutingController.get().isNavigating())
+    {
+      mLastSnapshot = null;
+      return;
+    }
+
+    final Snapshot snapshot = fetch();
+    mListenersIterator.rewind();
+    while (mListenersIterator.hasNext())
+      mListenersIterator.next().onRouteProgress(snapshot);
+  }
+
+  // Drops the snapshot of the previous route.
+  void reset()
+  {
+    mLastSnapshot = null;
+  }
+
+  @NonNull
+  private Snapshot fetch()
+  {
+    final boolean isRouteFinished = Framework.nativeIsRouteFinished();
+    final RoutingInfo info = isRouteFinished ? null : Framework.nativeGetRouteFollowingInfo();
+    mLastSnapshot = new Snapshot(++mSequence, info, isRouteFinished);
+    return mLastSnapshot;
+  }
+
+  @NonNull
+  private LocationHelper requireLocationHelper()
+  {
+    if (mLocationHelper == null)
+      throw new IllegalStateException("RouteProgress is not initialized");
+    return mLocationHelper;
+  }
+}
@@ -112,6 +112,7 @@ public class RoutingController
 
   private void onBuiltRoute()
   {
+    RouteProgress.get().reset();
     mCachedRoutingInfo = Framework.nativeGetRouteFollowingInfo();
     if (mLastRouterType == Router.Transit)
       mCachedTransitRouteInfo = Framework.nativeGetTransitRouteInfo();
@@ -438,6 +439,8 @@ public class RoutingController
   {
     Logger.d(TAG, "cancelInternal");
 
+    RouteProgress.get().reset();
+
     mWaitingPoiPickType = null;
 
     setBuildState(BuildState.NONE);
@@ -8,11 +8,5 @@ public interface MapSearchListener
   // Called from JNI.
   @Keep
   @SuppressWarnings("unused")
-  record Result(String countryId, String matchedString)
-  {}
-
-  // Called from JNI.
-  @Keep
-  @SuppressWarnings("unused")
-  void onMapSearchResults(@NonNull Result[] results, long timestamp, boolean isLast);
+  void onMapSearchResults(@NonNull MapSearchResults results, long timestamp, boolean isLast);
 }
@@ -0,0 +1,46 @@
+package app.organicmaps.sdk.search;
+
+import androidx.annotation.Keep;
+import androidx.annotation.NonNull;
+
+/**
+ * Batch of the maps search results, see {@link MapSearchListener}. Fields are kept in the primitive arrays,
+ * country ids and matched names are indices in the table of the unique strings, so the batch is passed
+ * by a single object regardless of the number of the results.
+ */
+// Called from JNI.
+@Keep
+@SuppressWarnings("unused")
+public final class MapSearchResults
+{
+  @NonNull
+  private final int[] mCountryIds;
+  @NonNull
+  private final int[] mMatchedNames;
+  @NonNull
+  private final String[] mStrings;
+
+  public MapSearchResults(@NonNull int[] countryIds, @NonNull int[] matchedNames, @NonNull String[] strings)
+  {
+    mCountryIds = countryIds;
+    mMatchedNames = matchedNames;
+    mStrings = strings;
+  }
+
+  public int size()
+  {
+    return mCountryIds.length;
+  }
+
+  @NonNull
+  public String getCountryId(int index)
+  {
+    return mStrings[mCountryIds[index]];
+  }
+
+  @NonNull
+  public String getMatchedString(int index)
+  {
+    return mStrings[mMatchedNames[index]];
+  }
+}
@@ -18,10 +18,15 @@ public enum SearchEngine implements SearchListener, MapSearchListener,
   // Query, which results are shown on the map.
   @Nullable
   private String mQuery;
+  // Results of the last native update, the native results are addressed by the indices in this array.
+  @Nullable
+  private volatile SearchResult[] mNativeResults;
 
   @Override
   public void onResultsUpdate(@NonNull final SearchResult[] results, final long timestamp)
   {
+    // Set before posting: the native results are replaced already, while the listeners could show the old ones.
+    mNativeResults = results;
     UiThread.run(() -> {
       for (SearchListener listener : mListeners)
         listener.onResultsUpdate(results, timestamp);
@@ -38,8 +43,7 @@ public enum SearchEngine implements SearchListener, MapSearchListener,
   }
 
   @Override
-  public void onMapSearchResults(@NonNull final MapSearchListener.Result[] results, final long timestamp,
-                                 final boolean isLast)
+  public void onMapSearchResults(@NonNull final MapSearchResults results, final long timestamp, final boolean isLast)
   {
     UiThread.run(() -> {
       for (MapSearchListener listener : mMapListeners)
@@ -183,6 +187,34 @@ public enum SearchEngine implements SearchListener, MapSearchListener,
     nativeCancelAllSearches();
   }
 
+  /**
+   * Returns the index of the result in the native results, which could be newer than the shown ones.
+   * The result is the same object if it is from the last update, e.g. one of the results which are reused by
+   * {@link SearchScheduler}, otherwise the same feature is looked for.
+   * @return -1 if the result is not in the native results.
+   */
+  @MainThread
+  public int getResultIndex(@NonNull SearchResult result)
+  {
+    final SearchResult[] results = mNativeResults;
+    if (results == null)
+      return -1;
+    for (int i = 0; i < results.length; ++i)
+    {
+      if (results[i] == result)
+        return i;
+    }
+    if (result.type != SearchResult.TYPE_RESULT)
+      return -1;
+    final String key = result.getKey();
+    for (int i = 0; i < results.length; ++i)
+    {
+      if (results[i].type == SearchResult.TYPE_RESULT && results[i].getKey().equals(key))
+        return i;
+    }
+    return -1;
+  }
+
   @MainThread
   public void showResult(int index)
   {
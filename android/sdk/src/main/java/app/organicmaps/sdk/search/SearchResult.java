@@ -9,8 +9,10 @@ import android.text.TextUtils;
 import android.text.style.StyleSpan;
 import androidx.annotation.Keep;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import app.organicmaps.sdk.bookmarks.data.FeatureId;
 import app.organicmaps.sdk.util.Distance;
+import java.util.Arrays;
 
 /**
  * Class instances are created from native code.
@@ -79,6 +81,14 @@ public class SearchResult
   @NonNull
   private final Popularity mPopularity;
 
+  // Results are immutable, so the highlighted texts are formatted once and reused by every bind.
+  @Nullable
+  private Spannable mFormattedTitle;
+  @Nullable
+  private Spannable mFormattedAddress;
+  @Nullable
+  private String mKey;
+
   public SearchResult(String name, String suggestion, double lat, double lon, int[] highlightRanges,
                       int[] descHighlightRanges)
   {
@@ -111,6 +121,46 @@ public class SearchResult
     this.descHighlightRanges = descHighlightRanges;
   }
 
+  /**
+   * Identity of the result between the updates of the same search: the feature for the results,
+   * the suggested query for the suggests.
+   */
+  @NonNull
+  public String getKey()
+  {
+    if (mKey != null)
+      return mKey;
+
+    if (type == TYPE_RESULT && description != null && description.featureId != null)
+    {
+      final FeatureId id = description.featureId;
+      mKey = id.getMwmVersion() + ":" + id.getMwmName() + ":" + id.getFeatureIndex();
+    }
+    else
+      mKey = type + ":" + suggestion;
+    return mKey;
+  }
+
+  /**
+   * Determines whether the result is displayed the same way as the other result with the same key.
+   */
+  public boolean hasSameContent(@NonNull SearchResult other)
+  {
+    if (type != other.type || !TextUtils.equals(name, other.name)
+        || !Arrays.equals(highlightRanges, other.highlightRanges)
+        || !Arrays.equals(descHighlightRanges, other.descHighlightRanges))
+      return false;
+    if (description == null || other.description == null)
+      return description == other.description;
+    return TextUtils.equals(description.localizedFeatureType, other.description.localizedFeatureType)
+        && TextUtils.equals(description.region, other.description.region)
+        && TextUtils.equals(description.description, other.description.description)
+        && description.distance.toString().equals(other.description.distance.toString())
+        && description.openNow == other.description.openNow
+        && description.minutesUntilOpen == other.description.minutesUntilOpen
+        && description.minutesUntilClosed == other.description.minutesUntilClosed;
+  }
+
   @NonNull
   public String getTitle(@NonNull Context context)
   {
@@ -139,19 +189,27 @@ public class SearchResult
   @NonNull
   public Spannable getFormattedTitle(@NonNull Context context)
   {
+    if (mFormattedTitle != null)
+      return mFormattedTitle;
+
     final String title = getTitle(context);
     final SpannableStringBuilder builder = new SpannableStringBuilder(title);
     formatText(builder, highlightRanges);
 
+    mFormattedTitle = builder;
     return builder;
   }
 
   public Spannable getFormattedAddress(@NonNull Context context)
   {
+    if (mFormattedAddress != null)
+      return mFormattedAddress;
+
     final String address = description != null ? description.region : null;
     final SpannableStringBuilder builder = new SpannableStringBuilder(address);
     formatText(builder, descHighlightRanges);
 
+    mFormattedAddress = builder;
     return builder;
   }
 }
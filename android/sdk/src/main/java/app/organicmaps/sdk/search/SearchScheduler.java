@@ -0,0 +1,339 @@
+package app.organicmaps.sdk.search;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import app.organicmaps.sdk.util.concurrency.UiThread;
+import app.organicmaps.sdk.util.log.Logger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Starts the searches of a query which is being typed.
+ * <p>
+ * The first query is searched at once. While a search is running, the next queries are coalesced: only the last
+ * one is searched after a delay, which follows the observed time to the first results, so a fast typist doesn't
+ * start and cancel a native search per keystroke. The delay is limited, so the results are updated during
+ * a continuous typing too.
+ * <p>
+ * When the query is extended, the results of the previous query which still match it are returned at once,
+ * to be shown until the results of the extended query come. They are a subset of the native results, so their
+ * positions are not the native indices: a clicked one should be resolved by
+ * {@link SearchEngine#getResultIndex(SearchResult)}.
+ * <p>
+ * Should be registered with {@link SearchEngine#addListener(SearchListener)} to measure the latency.
+ */
+@MainThread
+public final class SearchScheduler implements SearchListener
+{
+  private static final String TAG = SearchScheduler.class.getSimpleName();
+
+  private static final long MIN_DELAY_MS = 50;
+  private static final long MAX_DELAY_MS = 300;
+  // The pending query is searched at most this time after it was coalesced with the first one.
+  private static final long MAX_WAIT_MS = 600;
+  private static final long INITIAL_LATENCY_MS = 150;
+  private static final int RECENT_QUERIES = 32;
+
+  public interface Starter
+  {
+    /**
+     * Starts the native search.
+     * @return whether the search was started.
+     */
+    boolean start(@NonNull String query, boolean isCategory, long timestamp);
+  }
+
+  /**
+   * Latency of a started search. Times are in milliseconds from the query was typed, -1 if not received.
+   */
+  public static final class QueryMetrics
+  {
+    @NonNull
+    public final String query;
+    public final long delayMs;
+    public long firstResultsMs = -1;
+    public long completeMs = -1;
+    public int resultsCount;
+    public boolean cancelled;
+
+    private final long mScheduledAt;
+    private final long mTimestamp;
+
+    private QueryMetrics(@NonNull String query, long scheduledAt, long delayMs, long timestamp)
+    {
+      this.query = query;
+      this.delayMs = delayMs;
+      mScheduledAt = scheduledAt;
+      mTimestamp = timestamp;
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+      return String.format(Locale.US, "'%s': delay=%d first=%d complete=%d results=%d%s", query, delayMs,
+                           firstResultsMs, completeMs, resultsCount, cancelled ? " cancelled" : "");
+    }
+  }
+
+  /**
+   * Counters of the scheduler since it was created. Times are in milliseconds.
+   */
+  public static final class Metrics
+  {
+    public final long scheduled;
+    public final long started;
+    public final long coalesced;
+    public final long reused;
+    public final long completed;
+    public final long latencyEstimateMs;
+    public final long totalFirstResultsMs;
+    public final long totalCompleteMs;
+
+    private Metrics(long scheduled, long started, long coalesced, long reused, long completed,
+                    long latencyEstimateMs, long totalFirstResultsMs, long totalCompleteMs)
+    {
+      this.scheduled = scheduled;
+      this.started = started;
+      this.coalesced = coalesced;
+      this.reused = reused;
+      this.completed = completed;
+      this.latencyEstimateMs = latencyEstimateMs;
+      this.totalFirstResultsMs = totalFirstResultsMs;
+      this.totalCompleteMs = totalCompleteMs;
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+      final long count = Math.max(1, completed);
+      return String.format(Locale.US, "scheduled=%d started=%d coalesced=%d reused=%d completed=%d latency=%d"
+                                          + " first avg=%d complete avg=%d",
+                           scheduled, started, coalesced, reused, completed, latencyEstimateMs,
+                           totalFirstResultsMs / count, totalCompleteMs / count);
+    }
+  }
+
+  @NonNull
+  private final Starter mStarter;
+  @NonNull
+  private final Runnable mStartPending = this::startPending;
+
+  @Nullable
+  private String mPendingQuery;
+  private boolean mPendingIsCategory;
+  private long mPendingScheduledAt;
+  // Time the first of the coalesced queries was scheduled at.
+  private long mPendingSince;
+
+  // The running search.
+  @Nullable
+  private QueryMetrics mCurrent;
+  // The last received results, with the query they are found for.
+  @Nullable
+  private SearchResult[] mLastResults;
+  @Nullable
+  private String mLastResultsQuery;
+
+  // Smoothed time to the first results.
+  private long mLatencyEstimateMs = INITIAL_LATENCY_MS;
+  @NonNull
+  private final ArrayDeque<QueryMetrics> mRecent = new ArrayDeque<>();
+  private long mScheduled;
+  private long mStarted;
+  private long mCoalesced;
+  private long mReused;
+  private long mCompleted;
+  private long mTotalFirstResultsMs;
+  private long mTotalCompleteMs;
+
+  public SearchScheduler(@NonNull Starter starter)
+  {
+    mStarter = starter;
+  }
+
+  /**
+   * Schedules the search of the query, which replaces the queries scheduled before.
+   * @return results of the previous query which match the extended query, null if there are none.
+   */
+  @Nullable
+  public SearchResult[] schedule(@NonNull String query, boolean isCategory)
+  {
+    ++mScheduled;
+    final long now = SystemClock.elapsedRealtime();
+    final SearchResult[] reused = isCategory ? null : filterPrefixResults(query);
+    if (reused != null)
+      ++mReused;
+
+    if (mPendingQuery != null)
+    {
+      ++mCoalesced;
+      UiThread.cancelDelayedTasks(mStartPending);
+    }
+    else
+    {
+      mPendingSince = now;
+    }
+    mPendingQuery = query;
+    mPendingIsCategory = isCategory;
+    mPendingScheduledAt = now;
+
+    // Categories are selected, not typed.
+    if (isCategory || mCurrent == null)
+    {
+      startPending();
+      return reused;
+    }
+
+    final long delay = Math.min(getDelay(), Math.max(0, mPendingSince + MAX_WAIT_MS - now));
+    UiThread.runLater(mStartPending, delay);
+    return reused;
+  }
+
+  /**
+   * Drops the pending query and stops measuring the running search. Doesn't cancel the native search.
+   */
+  public void cancel()
+  {
+    UiThread.cancelDelayedTasks(mStartPending);
+    mPendingQuery = null;
+    if (mCurrent != null)
+      finish(mCurrent, true);
+    mLastResults = null;
+    mLastResultsQuery = null;
+  }
+
+  /**
+   * @return whether a query waits to be searched. The running search is for an older query then.
+   */
+  public boolean hasPending()
+  {
+    return mPendingQuery != null;
+  }
+
+  @NonNull
+  public Metrics getMetrics()
+  {
+    return new Metrics(mScheduled, mStarted, mCoalesced, mReused, mCompleted, mLatencyEstimateMs,
+                       mTotalFirstResultsMs, mTotalCompleteMs);
+  }
+
+  /**
+   * @return latency of the last started searches, the oldest first.
+   */
+  @NonNull
+  public List<QueryMetrics> getRecentQueries()
+  {
+    return new ArrayList<>(mRecent);
+  }
+
+  @Override
+  public void onResultsUpdate(@NonNull SearchResult[] results, long timestamp)
+  {
+    final QueryMetrics current = mCurrent;
+    if (current == null || current.mTimestamp != timestamp)
+      return;
+
+    if (current.firstResultsMs < 0)
+    {
+      current.firstResultsMs = SystemClock.elapsedRealtime() - current.mScheduledAt;
+      final long latency = current.firstResultsMs - current.delayMs;
+      mLatencyEstimateMs = (mLatencyEstimateMs * 3 + latency) / 4;
+    }
+    current.resultsCount = results.length;
+    mLastResults = results;
+    mLastResultsQuery = current.query;
+  }
+
+  @Override
+  public void onResultsEnd(long timestamp)
+  {
+    final QueryMetrics current = mCurrent;
+    if (current == null || current.mTimestamp != timestamp)
+      return;
+
+    current.completeMs = SystemClock.elapsedRealtime() - current.mScheduledAt;
+    ++mCompleted;
+    mTotalFirstResultsMs += Math.max(0, current.firstResultsMs);
+    mTotalCompleteMs += current.completeMs;
+    finish(current, false);
+  }
+
+  private long getDelay()
+  {
+    // A search which would take longer is cancelled by the next keystroke anyway.
+    return Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, mLatencyEstimateMs / 2));
+  }
+
+  private void startPending()
+  {
+    final String query = mPendingQuery;
+    if (query == null)
+      return;
+    mPendingQuery = null;
+
+    if (mCurrent != null)
+      finish(mCurrent, true);
+
+    final long now = SystemClock.elapsedRealtime();
+    final long timestamp = System.nanoTime();
+    final QueryMetrics metrics = new QueryMetrics(query, mPendingScheduledAt, now - mPendingScheduledAt, timestamp);
+    if (!mStarter.start(query, mPendingIsCategory, timestamp))
+      return;
+
+    ++mStarted;
+    mCurrent = metrics;
+  }
+
+  private void finish(@NonNull QueryMetrics metrics, boolean cancelled)
+  {
+    metrics.cancelled = cancelled;
+    mCurrent = null;
+    if (mRecent.size() == RECENT_QUERIES)
+      mRecent.removeFirst();
+    mRecent.addLast(metrics);
+    Logger.d(TAG, metrics.toString());
+  }
+
+  // Returns the results which contain all words of the query in the name or in the type. It's only an estimate
+  // of the native search, the results are replaced as soon as the native search returns.
+  @Nullable
+  private SearchResult[] filterPrefixResults(@NonNull String query)
+  {
+    final String lastQuery = mLastResultsQuery;
+    final SearchResult[] lastResults = mLastResults;
+    if (lastResults == null || lastQuery == null || query.length() <= lastQuery.length()
+        || !query.startsWith(lastQuery))
+      return null;
+
+    final String[] tokens = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    final List<SearchResult> matched = new ArrayList<>();
+    for (SearchResult result : lastResults)
+    {
+      // Suggests are made for the previous query.
+      if (result.type != SearchResult.TYPE_RESULT)
+        continue;
+      final String text = (TextUtils.isEmpty(result.name) ? "" : result.name) + ' '
+                        + (result.description != null ? result.description.localizedFeatureType : "");
+      if (containsAll(text.toLowerCase(Locale.ROOT), tokens))
+        matched.add(result);
+    }
+    return matched.isEmpty() ? null : matched.toArray(new SearchResult[0]);
+  }
+
+  private static boolean containsAll(@NonNull String text, @NonNull String[] tokens)
+  {
+    for (String token : tokens)
+    {
+      if (!text.contains(token))
+        return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,289 @@
+package app.organicmaps.sdk.settings;
+
+import android.content.Context;
+import android.os.Process;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import app.organicmaps.sdk.Framework;
+import app.organicmaps.sdk.util.StorageUtils;
+import app.organicmaps.sdk.util.concurrency.Lane;
+import app.organicmaps.sdk.util.concurrency.ThreadPool;
+import app.organicmaps.sdk.util.log.Logger;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Thread-safe
+ * <p>
+ * Finds the map files in the storages. Known map files of each storage are kept in an index in the private
+ * settings directory, so the check of a storage usually takes a single stat of a file instead of the walk
+ * over the whole storage. An entry is valid while the file has the same size and modification time,
+ * the storage is scanned again only when all its entries are stale.
+ * <p>
+ * Index line: storage path, relative path, size and modification time of a map file, separated by tabs.
+ */
+final class StorageInventory
+{
+  private static final String TAG = StorageInventory.class.getSimpleName();
+
+  private static final String INDEX_FILENAME = "storage_inventory";
+  private static final String DATA_FILE_EXT = Framework.nativeGetDataFileExt();
+  private static final int THREADS = 2;
+
+  private static StorageInventory sInstance;
+  private static Lane sLane;
+
+  private static final class Entry
+  {
+    @NonNull
+    final String relPath;
+    final long size;
+    final long lastModified;
+
+    Entry(@NonNull String relPath, long size, long lastModified)
+    {
+      this.relPath = relPath;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    boolean isValid(@NonNull File dir)
+    {
+      final File file = new File(dir, relPath);
+      return file.length() == size && file.lastModified() == lastModified;
+    }
+  }
+
+  // Result of the walk over a part of the storage.
+  private static final class Scan
+  {
+    long size;
+    @NonNull
+    final List<Entry> maps = new ArrayList<>();
+  }
+
+  @NonNull
+  private final File mIndexFile;
+  // Storage path to its map files, guarded by this.
+  @NonNull
+  private final Map<String, List<Entry>> mIndex = new HashMap<>();
+
+  private StorageInventory(@NonNull Context context)
+  {
+    mIndexFile = new File(StorageUtils.getSettingsPath(context), INDEX_FILENAME);
+    load();
+  }
+
+  @NonNull
+  static synchronized StorageInventory get(@NonNull Context context)
+  {
+    if (sInstance == null)
+      sInstance = new StorageInventory(context);
+    return sInstance;
+  }
+
+  @NonNull
+  private static synchronized Lane getLane()
+  {
+    if (sLane == null)
+      sLane = ThreadPool.createLane("StorageInventory", THREADS, 64, Process.THREAD_PRIORITY_DEFAULT);
+    return sLane;
+  }
+
+  /**
+   * Determines whether the storage contains map files.
+   */
+  @WorkerThread
+  boolean containsMapData(@NonNull String storagePath)
+  {
+    final File dir = new File(storagePath);
+    for (Entry entry : getEntries(storagePath))
+    {
+      if (entry.isValid(dir))
+        return true;
+    }
+
+    // Stops at the first map file.
+    final Entry found = findMap(dir, "");
+    setEntries(storagePath, found != null ? Collections.singletonList(found) : Collections.emptyList());
+    return found != null;
+  }
+
+  /**
+   * Returns the size of the movable files of the storage, the subfolders are walked in parallel.
+   * The found map files replace the index of the storage.
+   */
+  @WorkerThread
+  long getMovableFilesSize(@NonNull String storagePath)
+  {
+    final File[] children = new File(storagePath).listFiles();
+    if (children == null)
+    {
+      Logger.w(TAG, "listFiles() returned null for " + storagePath);
+      return 0;
+    }
+
+    final Scan result = new Scan();
+    final List<Future<Scan>> futures = new ArrayList<>();
+    for (File child : children)
+    {
+      if (child.isDirectory())
+        futures.add(getLane().submit(() -> scan(child, child.getName() + File.separator), Lane.Priority.HIGH));
+      else
+        addFile(result, child, child.getName());
+    }
+
+    for (Future<Scan> future : futures)
+    {
+      try
+      {
+        final Scan scan = future.get();
+        result.size += scan.size;
+        result.maps.addAll(scan.maps);
+      }
+      catch (ExecutionException e)
+      {
+        Logger.e(TAG, "Failed to scan " + storagePath, e);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        return result.size;
+      }
+    }
+
+    setEntries(storagePath, result.maps);
+    return result.size;
+  }
+
+  @NonNull
+  private static Scan scan(@NonNull File dir, @NonNull String prefix)
+  {
+    final Scan result = new Scan();
+    scan(dir, prefix, result);
+    return result;
+  }
+
+  private static void scan(@NonNull File dir, @NonNull String prefix, @NonNull Scan result)
+  {
+    final File[] list = dir.listFiles();
+    if (list == null)
+      return;
+    for (File file : list)
+    {
+      if (file.isDirectory())
+        scan(file, prefix + file.getName() + File.separator, result);
+      else
+        addFile(result, file, prefix + file.getName());
+    }
+  }
+
+  private static void addFile(@NonNull Scan result, @NonNull File file, @NonNull String relPath)
+  {
+    final String name = file.getName();
+    if (!StoragePathManager.MOVABLE_FILES_FILTER.accept(file.getParentFile(), name))
+      return;
+    final long size = file.length();
+    result.size += size;
+    if (name.endsWith(DATA_FILE_EXT))
+      result.maps.add(new Entry(relPath, size, file.lastModified()));
+  }
+
+  @Nullable
+  private static Entry findMap(@NonNull File dir, @NonNull String prefix)
+  {
+    final File[] list = dir.listFiles();
+    if (list == null)
+      return null;
+
+    // Files of this folder are checked before going deeper.
+    for (File file : list)
+    {
+      if (file.getName().endsWith(DATA_FILE_EXT) && file.isFile())
+        return new Entry(prefix + file.getName(), file.length(), file.lastModified());
+    }
+    for (File file : list)
+    {
+      if (!file.isDirectory())
+        continue;
+      final Entry entry = findMap(file, prefix + file.getName() + File.separator);
+      if (entry != null)
+        return entry;
+    }
+    return null;
+  }
+
+  @NonNull
+  private synchronized List<Entry> getEntries(@NonNull String storagePath)
+  {
+    final List<Entry> entries = mIndex.get(storagePath);
+    return entries != null ? entries : Collections.emptyList();
+  }
+
+  private synchronized void setEntries(@NonNull String storagePath, @NonNull List<Entry> entries)
+  {
+    mIndex.put(storagePath, new ArrayList<>(entries));
+    save();
+  }
+
+  private synchronized void load()
+  {
+    if (!mIndexFile.exists())
+      return;
+
+    try (BufferedReader reader = new BufferedReader(new FileReader(mIndexFile)))
+    {
+      String line;
+      while ((line = reader.readLine()) != null)
+      {
+        final String[] fields = line.split("\t");
+        if (fields.length != 4)
+          continue;
+        List<Entry> entries = mIndex.get(fields[0]);
+        if (entries == null)
+        {
+          entries = new ArrayList<>();
+          mIndex.put(fields[0], entries);
+        }
+        entries.add(new Entry(fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+      }
+    }
+    catch (IOException | NumberFormatException e)
+    {
+      // The index is only a hint, the storages are scanned again.
+      Logger.w(TAG, "Failed to read " + mIndexFile, e);
+      mIndex.clear();
+    }
+  }
+
+  private synchronized void save()
+  {
+    try (Writer writer = new FileWriter(mIndexFile))
+    {
+      for (Map.Entry<String, List<Entry>> storage : mIndex.entrySet())
+      {
+        for (Entry entry : storage.getValue())
+        {
+          writer.write(storage.getKey() + '\t' + entry.relPath + '\t' + entry.size + '\t' + entry.lastModified
+                       + '\n');
+        }
+      }
+    }
+    catch (IOException e)
+    {
+      Logger.w(TAG, "Failed to write " + mIndexFile, e);
+    }
+  }
+}
@@ -0,0 +1,412 @@
+package app.organicmaps.sdk.settings;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import app.organicmaps.sdk.util.Config;
+import app.organicmaps.sdk.util.StorageUtils;
+import app.organicmaps.sdk.util.concurrency.Lane;
+import app.organicmaps.sdk.util.concurrency.ThreadPool;
+import app.organicmaps.sdk.util.log.Logger;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Moves the map files to another storage by copying them first and deleting the sources only after all
+ * the copies are verified.
+ * <p>
+ * Progress is kept in a journal in the private settings directory. If the process dies while the files
+ * are copied, the old storage stays untouched and the next move to the same storage skips the copied files.
+ * If it dies after the commit, {@link #finishCommitted(Context)} removes the rest of the sources on start.
+ * <p>
+ * Journal lines: "from" and "to" paths, "done" with the relative path, size and CRC32 of each verified file,
+ * and "commit" when all the files are copied.
+ */
+@SuppressWarnings("ResultOfMethodCallIgnored")
+final class StorageMigration
+{
+  private static final String TAG = StorageMigration.class.getSimpleName();
+
+  private static final String JOURNAL_FILENAME = "storage_migration.journal";
+  private static final String TEMP_EXTENSION = ".moving";
+  private static final String KEY_FROM = "from";
+  private static final String KEY_TO = "to";
+  private static final String KEY_DONE = "done";
+  private static final String KEY_COMMIT = "commit";
+
+  private static final int THREADS = 2;
+  private static final int BUFFER_SIZE = 1024 * 1024;
+  private static final long PROGRESS_INTERVAL_MS = 500;
+
+  private static Lane sLane;
+
+  private static final class Journal
+  {
+    @NonNull
+    final String from;
+    @NonNull
+    final String to;
+    // Relative path to size and CRC32 of the verified copies.
+    @NonNull
+    final Map<String, long[]> done;
+    final boolean isCommitted;
+
+    Journal(@NonNull String from, @NonNull String to, @NonNull Map<String, long[]> done, boolean isCommitted)
+    {
+      this.from = from;
+      this.to = to;
+      this.done = done;
+      this.isCommitted = isCommitted;
+    }
+  }
+
+  @NonNull
+  private final File mJournalFile;
+  // Paths are kept as given to match the journal of the interrupted move.
+  @NonNull
+  private final String mOldPath;
+  @NonNull
+  private final String mNewPath;
+  @NonNull
+  private final File mOldDir;
+  @NonNull
+  private final File mNewDir;
+  @Nullable
+  private final StoragePathManager.MoveListener mListener;
+
+  private final AtomicBoolean mFailed = new AtomicBoolean();
+  private final AtomicLong mBytesCopied = new AtomicLong();
+  private final AtomicLong mProgressReportedAt = new AtomicLong();
+  private long mBytesTotal;
+  private long mStartedAt;
+
+  StorageMigration(@NonNull Context context, @NonNull String newPath, @NonNull String oldPath,
+                   @Nullable StoragePathManager.MoveListener listener)
+  {
+    mJournalFile = getJournalFile(context);
+    mOldPath = oldPath;
+    mNewPath = newPath;
+    mOldDir = new File(oldPath);
+    mNewDir = new File(newPath);
+    mListener = listener;
+  }
+
+  @NonNull
+  private static File getJournalFile(@NonNull Context context)
+  {
+    return new File(StorageUtils.getSettingsPath(context), JOURNAL_FILENAME);
+  }
+
+  @NonNull
+  private static synchronized Lane getLane()
+  {
+    if (sLane == null)
+      sLane = ThreadPool.createLane("StorageMigration", THREADS, 64, Process.THREAD_PRIORITY_BACKGROUND);
+    return sLane;
+  }
+
+  /**
+   * @return the new storage path if the interrupted move was committed, the sources are deleted then.
+   */
+  @Nullable
+  static String finishCommitted(@NonNull Context context)
+  {
+    final File journalFile = getJournalFile(context);
+    final Journal journal = readJournal(journalFile);
+    if (journal == null)
+      return null;
+    if (!journal.isCommitted)
+    {
+      // The old storage is complete, the move continues when it is started again.
+      Logger.w(TAG, "Found interrupted move from " + journal.from + " to " + journal.to);
+      return null;
+    }
+
+    Logger.i(TAG, "Finishing committed move from " + journal.from + " to " + journal.to);
+    deleteSources(new File(journal.from), journal.done.keySet());
+    Config.setStoragePath(journal.to);
+    journalFile.delete();
+    return journal.to;
+  }
+
+  /**
+   * @return paths of the interrupted move which can be continued, null if there is no such move.
+   */
+  @Nullable
+  static String[] getInterruptedMove(@NonNull Context context)
+  {
+    final Journal journal = readJournal(getJournalFile(context));
+    if (journal == null || journal.isCommitted)
+      return null;
+    return new String[] {journal.from, journal.to};
+  }
+
+  @WorkerThread
+  boolean run()
+  {
+    Logger.i(TAG, "Begin moving maps from " + mOldDir + " to " + mNewDir);
+
+    final ArrayList<String> relPaths = new ArrayList<>();
+    StorageUtils.listFilesRecursively(mOldDir, "", StoragePathManager.MOVABLE_FILES_FILTER, relPaths);
+
+    Map<String, long[]> done = Collections.emptyMap();
+    final Journal journal = readJournal(mJournalFile);
+    if (journal != null && journal.from.equals(mOldPath) && journal.to.equals(mNewPath))
+    {
+      Logger.i(TAG, "Continuing interrupted move, copied files: " + journal.done.size());
+      done = journal.done;
+    }
+    else
+    {
+      if (journal != null)
+        rollback(journal);
+      if (!startJournal())
+        return false;
+    }
+
+    final List<String> pending = new ArrayList<>();
+    for (String relPath : relPaths)
+    {
+      final long size = new File(mOldDir, relPath).length();
+      mBytesTotal += size;
+      final long[] copied = done.get(relPath);
+      if (copied != null && copied[0] == size && new File(mNewDir, relPath).length() == size)
+        mBytesCopied.addAndGet(size);
+      else
+        pending.add(relPath);
+    }
+    // Large files first, so the threads finish at about the same time.
+    Collections.sort(pending, (lhs, rhs) -> Long.compare(new File(mOldDir, rhs).length(),
+                                                         new File(mOldDir, lhs).length()));
+
+    mStartedAt = SystemClock.elapsedRealtime();
+    final List<Future<?>> futures = new ArrayList<>(pending.size());
+    for (String relPath : pending)
+      futures.add(getLane().submit(() -> copy(relPath), Lane.Priority.NORMAL));
+    for (Future<?> future : futures)
+    {
+      try
+      {
+        future.get();
+      }
+      catch (ExecutionException e)
+      {
+        Logger.e(TAG, "Failed to copy map file", e);
+        mFailed.set(true);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        mFailed.set(true);
+        break;
+      }
+    }
+
+    if (mFailed.get() || !appendJournal(KEY_COMMIT))
+    {
+      // Verified copies are kept for the next attempt, the old storage is complete.
+      Logger.e(TAG, "Failed to move maps, the old storage is kept");
+      return false;
+    }
+
+    deleteSources(mOldDir, relPaths);
+    mJournalFile.delete();
+    Logger.i(TAG, "End moving maps");
+    return true;
+  }
+
+  private void copy(@NonNull String relPath)
+  {
+    if (mFailed.get())
+      return;
+
+    final File source = new File(mOldDir, relPath);
+    final File target = new File(mNewDir, relPath);
+    final File temp = new File(target.getPath() + TEMP_EXTENSION);
+    final File parent = target.getParentFile();
+    if (parent != null)
+      parent.mkdirs();
+
+    try
+    {
+      final long size = source.length();
+      final long crc = copyFile(source, temp);
+      if (temp.length() != size || checksum(temp) != crc)
+        throw new IOException("Copy of " + source + " differs from the source");
+      if (!temp.renameTo(target))
+        throw new IOException("Failed to rename " + temp + " to " + target);
+      if (!appendJournal(KEY_DONE + '\t' + relPath + '\t' + size + '\t' + crc))
+        throw new IOException("Failed to update the journal");
+    }
+    catch (IOException e)
+    {
+      Logger.e(TAG, "Failed to copy " + source + " to " + target, e);
+      temp.delete();
+      mFailed.set(true);
+    }
+  }
+
+  // Returns CRC32 of the copied data.
+  private long copyFile(@NonNull File source, @NonNull File target) throws IOException
+  {
+    final CRC32 crc = new CRC32();
+    final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    try (FileInputStream in = new FileInputStream(source); FileOutputStream out = new FileOutputStream(target))
+    {
+      final FileChannel inChannel = in.getChannel();
+      final FileChannel outChannel = out.getChannel();
+      while (inChannel.read(buffer) != -1)
+      {
+        if (mFailed.get())
+          throw new IOException("Move is aborted");
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        final int count = buffer.limit();
+        while (buffer.hasRemaining())
+          outChannel.write(buffer);
+        buffer.clear();
+        onCopied(count);
+      }
+      // The journal must not point to the data which is not on the storage yet.
+      out.getFD().sync();
+    }
+    return crc.getValue();
+  }
+
+  private static long checksum(@NonNull File file) throws IOException
+  {
+    final CRC32 crc = new CRC32();
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream in = new FileInputStream(file))
+    {
+      int count;
+      while ((count = in.read(buffer)) != -1)
+        crc.update(buffer, 0, count);
+    }
+    return crc.getValue();
+  }
+
+  private void onCopied(long bytes)
+  {
+    final long copied = mBytesCopied.addAndGet(bytes);
+    if (mListener == null)
+      return;
+
+    final long now = SystemClock.elapsedRealtime();
+    final long reportedAt = mProgressReportedAt.get();
+    if (now - reportedAt < PROGRESS_INTERVAL_MS || !mProgressReportedAt.compareAndSet(reportedAt, now))
+      return;
+    final long elapsedMs = Math.max(1, now - mStartedAt);
+    mListener.onMoveProgress(copied, mBytesTotal, copied * 1000 / elapsedMs);
+  }
+
+  private boolean startJournal()
+  {
+    mJournalFile.delete();
+    return appendJournal(KEY_FROM + '\t' + mOldPath) && appendJournal(KEY_TO + '\t' + mNewPath);
+  }
+
+  private synchronized boolean appendJournal(@NonNull String line)
+  {
+    try (FileOutputStream out = new FileOutputStream(mJournalFile, true))
+    {
+      out.write((line + '\n').getBytes(StandardCharsets.UTF_8));
+      out.getFD().sync();
+      return true;
+    }
+    catch (IOException e)
+    {
+      Logger.e(TAG, "Failed to write " + mJournalFile, e);
+      return false;
+    }
+  }
+
+  @Nullable
+  private static Journal readJournal(@NonNull File journalFile)
+  {
+    if (!journalFile.exists())
+      return null;
+
+    String from = null;
+    String to = null;
+    final Map<String, long[]> done = new HashMap<>();
+    boolean isCommitted = false;
+    try (BufferedReader reader = new BufferedReader(new FileReader(journalFile)))
+    {
+      String line;
+      while ((line = reader.readLine()) != null)
+      {
+        final String[] fields = line.split("\t");
+        switch (fields[0])
+        {
+        case KEY_FROM -> from = fields.length == 2 ? fields[1] : null;
+        case KEY_TO -> to = fields.length == 2 ? fields[1] : null;
+        case KEY_DONE ->
+        {
+          // The last line could be cut by the crash.
+          if (fields.length == 4)
+            done.put(fields[1], new long[] {Long.parseLong(fields[2]), Long.parseLong(fields[3])});
+        }
+        case KEY_COMMIT -> isCommitted = true;
+        default -> Logger.w(TAG, "Unknown journal line: " + line);
+        }
+      }
+    }
+    catch (IOException | NumberFormatException e)
+    {
+      Logger.e(TAG, "Failed to read " + journalFile, e);
+      return null;
+    }
+
+    if (from == null || to == null)
+    {
+      Logger.w(TAG, "Incomplete journal " + journalFile + ", ignoring it");
+      journalFile.delete();
+      return null;
+    }
+    return new Journal(from, to, done, isCommitted);
+  }
+
+  // Deletes the copies of the interrupted move to another storage.
+  private void rollback(@NonNull Journal journal)
+  {
+    Logger.i(TAG, "Discarding interrupted move from " + journal.from + " to " + journal.to);
+    final File dir = new File(journal.to);
+    for (String relPath : journal.done.keySet())
+      new File(dir, relPath).delete();
+    StorageUtils.removeEmptyDirectories(dir);
+    mJournalFile.delete();
+  }
+
+  private static void deleteSources(@NonNull File dir, @NonNull Iterable<String> relPaths)
+  {
+    for (String relPath : relPaths)
+    {
+      final File file = new File(dir, relPath);
+      if (file.exists() && !file.delete())
+        Logger.w(TAG, "Failed to delete " + file);
+    }
+    StorageUtils.removeEmptyDirectories(dir);
+  }
+}
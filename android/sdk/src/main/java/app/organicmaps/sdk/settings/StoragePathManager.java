@@ -11,9 +11,9 @@ import android.os.storage.StorageVolume;
 import android.text.TextUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import app.organicmaps.sdk.Framework;
 import app.organicmaps.sdk.R;
-import app.organicmaps.sdk.downloader.MapManager;
 import app.organicmaps.sdk.util.Config;
 import app.organicmaps.sdk.util.StorageUtils;
 import app.organicmaps.sdk.util.log.Logger;
@@ -26,7 +26,6 @@ import java.util.List;
 public class StoragePathManager
 {
   private static final String TAG = StoragePathManager.class.getSimpleName();
-  private static final String DATA_FILE_EXT = Framework.nativeGetDataFileExt();
   private static final String[] MOVABLE_EXTS = Framework.nativeGetMovableFilesExts();
   public static final FilenameFilter MOVABLE_FILES_FILTER = (dir, filename) ->
   {
@@ -37,6 +36,12 @@ public class StoragePathManager
     return false;
   };
 
+  public interface MoveListener
+  {
+    // Called from a background thread.
+    void onMoveProgress(long bytesCopied, long bytesTotal, long bytesPerSecond);
+  }
+
   public interface OnStorageListChangedListener
   {
     void onStorageListChanged(List<StorageItem> storageItems, int currentStorageIndex);
@@ -271,13 +276,12 @@ public class StoragePathManager
   }
 
   /**
-   * Determine whether the storage contains map files.
+   * Returns the size of the map files in the storage.
    */
-  private static boolean containsMapData(String storagePath)
+  @WorkerThread
+  public static long getMovableFilesSize(@NonNull Context context, @NonNull String storagePath)
   {
-    return StorageUtils.getDirSizeRecursively(new File(storagePath),
-                                              (dir, filename) -> filename.endsWith(DATA_FILE_EXT))
-  > 0;
+    return StorageInventory.get(context).getMovableFilesSize(storagePath);
   }
 
   /**
@@ -304,6 +308,15 @@ public class StoragePathManager
    */
   public static String findMapsStorage(@NonNull Context context)
   {
+    // Sources of the committed move could be deleted partially, only the new storage is complete.
+    final String movedPath = StorageMigration.finishCommitted(context);
+    if (movedPath != null)
+    {
+      Logger.i(TAG, "Using the storage of the finished move " + movedPath);
+      return movedPath;
+    }
+
+    final StorageInventory inventory = StorageInventory.get(context);
     StoragePathManager mgr = new StoragePathManager(context);
     mgr.scanAvailableStorages();
     String path;
@@ -313,7 +326,7 @@ public class StoragePathManager
     if (currentIdx != -1)
     {
       path = storages.get(currentIdx).mPath;
-      if (containsMapData(path))
+      if (inventory.containsMapData(path))
       {
         Logger.i(TAG, "Found map files at the currently configured " + path);
         return path;
@@ -330,7 +343,7 @@ public class StoragePathManager
       if (idx == currentIdx)
         continue;
       path = storages.get(idx).mPath;
-      if (containsMapData(path))
+      if (inventory.containsMapData(path))
       {
         Logger.i(TAG, "Found map files at " + path);
         return path;
@@ -347,45 +360,24 @@ public class StoragePathManager
   }
 
   /**
-   * Moves map files.
+   * Moves map files, see {@link StorageMigration}.
+   *
+   * @return false if the files were not moved, the old storage is complete then.
    */
-  @SuppressWarnings("ResultOfMethodCallIgnored")
-  public static boolean moveStorage(@NonNull final String newPath, @NonNull final String oldPath)
+  @WorkerThread
+  public static boolean moveStorage(@NonNull Context context, @NonNull final String newPath,
+                                    @NonNull final String oldPath, @Nullable MoveListener listener)
   {
-    Logger.i(TAG, "Begin moving maps from " + oldPath + " to " + newPath);
-
-    final File oldDir = new File(oldPath);
-    final File newDir = new File(newPath);
-
-    ArrayList<String> relPaths = new ArrayList<>();
-    StorageUtils.listFilesRecursively(oldDir, "", MOVABLE_FILES_FILTER, relPaths);
-
-    File[] oldFiles = new File[relPaths.size()];
-    File[] newFiles = new File[relPaths.size()];
-    for (int i = 0; i < relPaths.size(); ++i)
-    {
-      oldFiles[i] = new File(oldDir.getAbsolutePath() + File.separator + relPaths.get(i));
-      newFiles[i] = new File(newDir.getAbsolutePath() + File.separator + relPaths.get(i));
-    }
-
-    for (int i = 0; i < oldFiles.length; ++i)
-    {
-      Logger.i(TAG, "Moving " + oldFiles[i].getPath() + " to " + newFiles[i].getPath());
-      File parent = newFiles[i].getParentFile();
-      if (parent != null)
-        parent.mkdirs();
-      if (!MapManager.nativeMoveFile(oldFiles[i].getPath(), newFiles[i].getPath()))
-      {
-        Logger.e(TAG, "Failed to move " + oldFiles[i].getPath() + " to " + newFiles[i].getPath());
-        // In the case of failure delete all new files.  Old files will
-        // be lost if new files were just moved from old locations.
-        // TODO: Delete old files only after all of them were copied to the new location.
-        StorageUtils.removeFilesInDirectory(newDir, newFiles);
-        return false;
-      }
-    }
-    Logger.i(TAG, "End moving maps");
+    return new StorageMigration(context, newPath, oldPath, listener).run();
+  }
 
-    return true;
+  /**
+   * Returns the old and the new storage paths of the move which was interrupted by the process death,
+   * or null if there is no such move.
+   */
+  @Nullable
+  public static String[] getInterruptedMove(@NonNull Context context)
+  {
+    return StorageMigration.getInterruptedMove(context);
   }
 }
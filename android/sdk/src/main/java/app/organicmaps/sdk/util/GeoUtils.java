@@ -3,14 +3,81 @@ package app.organicmaps.sdk.util;
 import androidx.annotation.NonNull;
 import app.organicmaps.sdk.bookmarks.data.ParcelablePointD;
 
+/**
+ * Geometry helpers. The Java ones repeat the math of the core (see geometry/mercator.cpp,
+ * geometry/distance_on_sphere.cpp and Framework::GetDistanceAndAzimut()) and don't allocate,
+ * so they can be called at the rate of the compass.
+ */
 public class GeoUtils
 {
+  // Must be the same as ms::kEarthRadiusMeters.
+  public static final double EARTH_RADIUS_METERS = 6378000.0;
+
+  private static final double MIN_Y = -180.0;
+  private static final double MAX_Y = 180.0;
+  private static final double MAX_LAT = 86.0;
+  private static final double TWO_PI = 2.0 * Math.PI;
+
   @NonNull
   static public ParcelablePointD toLatLon(double merX, double merY)
   {
     return nativeToLatLon(merX, merY);
   }
 
+  public static double latToY(double lat)
+  {
+    final double sinx = Math.sin(Math.toRadians(Math.max(-MAX_LAT, Math.min(MAX_LAT, lat))));
+    final double res = Math.toDegrees(0.5 * Math.log((1.0 + sinx) / (1.0 - sinx)));
+    return Math.max(MIN_Y, Math.min(MAX_Y, res));
+  }
+
+  public static double yToLat(double y)
+  {
+    return Math.toDegrees(2.0 * Math.atan(Math.tanh(0.5 * Math.toRadians(y))));
+  }
+
+  /**
+   * @return haversine distance in meters between two points, as ms::DistanceOnEarth() does.
+   */
+  public static double distanceOnEarth(double lat1, double lon1, double lat2, double lon2)
+  {
+    final double rLat1 = Math.toRadians(lat1);
+    final double rLat2 = Math.toRadians(lat2);
+    final double dlat = Math.sin((rLat2 - rLat1) * 0.5);
+    final double dlon = Math.sin((Math.toRadians(lon2) - Math.toRadians(lon1)) * 0.5);
+    final double y = dlat * dlat + dlon * dlon * Math.cos(rLat1) * Math.cos(rLat2);
+    return EARTH_RADIUS_METERS * 2.0 * Math.atan2(Math.sqrt(y), Math.sqrt(Math.max(0.0, 1.0 - y)));
+  }
+
+  /**
+   * Azimuth to the mercator point from the current position, the same as the one returned by
+   * Framework.nativeGetDistanceAndAzimuth().
+   * @param north direction of the device in radians, 0.0 for the azimuth from the true north.
+   * @return clockwise angle in radians in range [0, 2 * pi].
+   */
+  public static double azimuth(double dstMerX, double dstMerY, double srcLat, double srcLon, double north)
+  {
+    // The mercator x is the longitude.
+    final double angle = Math.atan2(dstMerY - latToY(srcLat), dstMerX - srcLon);
+    // ang::Azimuth() adds 2 * pi once, then Framework::GetDistanceAndAzimut() normalizes it once more.
+    double azimuth = Math.PI / 2 - (angle + north);
+    if (azimuth < 0.0)
+      azimuth += TWO_PI;
+    if (azimuth < 0.0)
+      azimuth += TWO_PI;
+    else if (azimuth > TWO_PI)
+      azimuth -= TWO_PI;
+    return azimuth;
+  }
+
+  /**
+   * Same as {@link #azimuth(double, double, double, double, double)} to the point given by the coordinates.
+   */
+  public static double azimuthFromLatLon(double dstLat, double dstLon, double srcLat, double srcLon, double north)
+  {
+    return azimuth(dstLon, latToY(dstLat), srcLat, srcLon, north);
+  }
+
   @NonNull
   private static native ParcelablePointD nativeToLatLon(double merX, double merY);
 }
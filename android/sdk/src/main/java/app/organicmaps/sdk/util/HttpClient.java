@@ -24,22 +24,27 @@
 
 package app.organicmaps.sdk.util;
 
+import android.net.http.HttpResponseCache;
 import android.text.TextUtils;
 import androidx.annotation.Keep;
 import androidx.annotation.NonNull;
-import app.organicmaps.sdk.downloader.Android7RootCertificateWorkaround;
+import androidx.annotation.Nullable;
 import app.organicmaps.sdk.util.log.Logger;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -56,6 +61,25 @@ public final class HttpClient
 
   // TODO(AlexZ): tune for larger files
   private final static int STREAM_BUFFER_SIZE = 1024 * 64;
+  private final static long CACHE_SIZE = 10 * Constants.MB;
+  // Validator of the partially downloaded output file is stored next to it to resume the download.
+  private final static String RESUME_FILE_EXTENSION = ".resume";
+
+  /**
+   * Installs the on-disk cache for GET requests without a body. Cached responses are revalidated
+   * with conditional requests, so unchanged data is not downloaded again after 304 reply.
+   */
+  public static void installCache(@NonNull File directory)
+  {
+    try
+    {
+      HttpResponseCache.install(directory, CACHE_SIZE);
+    }
+    catch (IOException ex)
+    {
+      Logger.e(TAG, "Failed to install HTTP cache to " + directory, ex);
+    }
+  }
 
   public static Params run(@NonNull final Params p) throws IOException, NullPointerException
   {
@@ -63,13 +87,15 @@ public final class HttpClient
       throw new IllegalArgumentException("Please set valid HTTP method for request at Params.httpMethod field.");
 
     HttpURLConnection connection = null;
+    // Connection is returned to the keep-alive pool only if the response is read completely.
+    boolean isReusable = false;
+    boolean keepAlive = true;
 
     Logger.d(TAG, "Connecting to " + Utils.makeUrlSafe(p.url));
 
     try
     {
-      connection = (HttpURLConnection) new URL(p.url).openConnection();
-      Android7RootCertificateWorkaround.applyFixIfNeeded(connection);
+      connection = HttpTransport.open(new URL(p.url));
 
       // NullPointerException, MalformedUrlException, IOException
       // Redirects from http to https or vice versa are not supported by Android implementation.
@@ -90,9 +116,28 @@ public final class HttpClient
       connection.setInstanceFollowRedirects(p.followRedirects);
       connection.setConnectTimeout(p.timeoutMillisec);
       connection.setReadTimeout(p.timeoutMillisec);
-      connection.setUseCaches(false);
       connection.setRequestMethod(p.httpMethod);
 
+      final boolean isGet = "GET".equals(p.httpMethod) && TextUtils.isEmpty(p.inputFilePath) && p.data == null;
+      final boolean isFileDownload = isGet && !TextUtils.isEmpty(p.outputFilePath);
+      // Cache is used for the small in-memory responses only.
+      connection.setUseCaches(isGet && !isFileDownload && HttpResponseCache.getInstalled() != null);
+
+      long resumeFrom = 0;
+      if (isFileDownload)
+      {
+        // Ranges of the compressed body can't be mapped to the partially downloaded file.
+        connection.setRequestProperty("Accept-Encoding", "identity");
+        final String validator = readResumeValidator(p);
+        if (validator != null)
+        {
+          resumeFrom = new File(p.outputFilePath).length();
+          connection.setRequestProperty("Range", "bytes=" + resumeFrom + "-");
+          // Server sends the whole file if it has changed since the first attempt.
+          connection.setRequestProperty("If-Range", validator);
+        }
+      }
+
       if (!TextUtils.isEmpty(p.cookies))
         connection.setRequestProperty("Cookie", p.cookies);
 
@@ -108,7 +153,12 @@ public final class HttpClient
         // Work-around for situation when more than one consequent POST requests can lead to stable
         // "java.net.ProtocolException: Unexpected status line:" on a client and Nginx HTTP 499 errors.
         // The only found reference to this bug is http://stackoverflow.com/a/24303115/1209392
-        connection.setRequestProperty("Connection", "close");
+        // The hosts which handle them well opt in to keep-alive with HttpTransport.setHostConfig().
+        if (!HttpTransport.isKeepAliveWithBody(connection.getURL()))
+        {
+          connection.setRequestProperty("Connection", "close");
+          keepAlive = false;
+        }
         connection.setDoOutput(true);
         if (p.data != null)
         {
@@ -142,11 +192,31 @@ public final class HttpClient
       Logger.d(TAG, "Received HTTP " + p.httpResponseCode + " from server, content encoding = "
                         + connection.getContentEncoding() + ", for request = " + Utils.makeUrlSafe(p.url));
 
+      final boolean isResumed = resumeFrom > 0 && p.httpResponseCode == HttpURLConnection.HTTP_PARTIAL;
+      if (isResumed)
+      {
+        Logger.d(TAG, "Resuming download of " + p.outputFilePath + " from " + resumeFrom);
+        // The caller gets the whole file, as after the usual successful request.
+        p.httpResponseCode = HttpURLConnection.HTTP_OK;
+      }
+      else if (resumeFrom > 0)
+      {
+        Logger.d(TAG, "Can't resume download of " + p.outputFilePath + ", server replied " + p.httpResponseCode);
+        deleteResumeFile(p);
+      }
+      final boolean isResumable = isFileDownload && p.httpResponseCode == HttpURLConnection.HTTP_OK;
+      if (isResumable)
+        writeResumeValidator(p, connection);
+
       if (p.httpResponseCode >= 300 && p.httpResponseCode < 400)
         p.receivedUrl = connection.getHeaderField("Location");
       else
         p.receivedUrl = connection.getURL().toString();
 
+      // Request body must not be returned as the response, which is passed to the sink.
+      if (p.responseSink != 0)
+        p.data = null;
+
       p.headers.clear();
       if (p.loadHeaders)
       {
@@ -167,15 +237,19 @@ public final class HttpClient
           p.headers.add(new KeyValue("Set-Cookie", TextUtils.join(", ", cookies)));
       }
 
+      // Response body is opened, an exception after it means the body is truncated.
+      boolean hasBody = false;
       try
       {
         OutputStream ostream;
         if (!TextUtils.isEmpty(p.outputFilePath))
-          ostream = new BufferedOutputStream(new FileOutputStream(p.outputFilePath), STREAM_BUFFER_SIZE);
+          ostream = new BufferedOutputStream(new FileOutputStream(p.outputFilePath, isResumed), STREAM_BUFFER_SIZE);
+        else if (p.responseSink != 0)
+          ostream = new ResponseSinkStream(p.responseSink);
         else
           ostream = new ByteArrayOutputStream(STREAM_BUFFER_SIZE);
-        // TODO(AlexZ): Add HTTP resume support in the future for partially downloaded files
         final BufferedInputStream istream = new BufferedInputStream(getInputStream(connection), STREAM_BUFFER_SIZE);
+        hasBody = true;
         final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
         // gzip encoding is transparently enabled and we can't use Content-Length for
         // body reading if server has gzipped it.
@@ -189,20 +263,80 @@ public final class HttpClient
         ostream.close(); // IOException
         if (ostream instanceof ByteArrayOutputStream)
           p.data = ((ByteArrayOutputStream) ostream).toByteArray();
+        if (isResumable)
+          deleteResumeFile(p);
+        isReusable = keepAlive;
       }
       catch (IOException ex)
       {
+        // Interrupted file download is reported to the caller, the next attempt resumes it.
+        if (isResumable)
+          throw ex;
+        // The part of the body is already passed to the sink, it must not be taken as the whole response.
+        if (hasBody && TextUtils.isEmpty(p.outputFilePath) && p.responseSink != 0)
+          throw ex;
         // Exception here means that there is no body in the response.
       }
     }
     finally
     {
       if (connection != null)
-        connection.disconnect();
+        HttpTransport.release(connection, isReusable);
     }
     return p;
   }
 
+  /**
+   * @return ETag or Last-Modified value of the partially downloaded output file, if the download can be resumed.
+   */
+  @Nullable
+  private static String readResumeValidator(@NonNull Params p)
+  {
+    final File resumeFile = new File(p.outputFilePath + RESUME_FILE_EXTENSION);
+    if (!resumeFile.exists() || new File(p.outputFilePath).length() == 0)
+      return null;
+
+    try (BufferedReader reader = new BufferedReader(new FileReader(resumeFile)))
+    {
+      if (p.url.equals(reader.readLine()))
+        return reader.readLine();
+    }
+    catch (IOException ex)
+    {
+      Logger.w(TAG, "Failed to read " + resumeFile, ex);
+    }
+    return null;
+  }
+
+  private static void writeResumeValidator(@NonNull Params p, @NonNull HttpURLConnection connection)
+  {
+    String validator = connection.getHeaderField("ETag");
+    // Weak ETags can't be used in If-Range.
+    if (validator == null || validator.startsWith("W/"))
+      validator = connection.getHeaderField("Last-Modified");
+    if (validator == null)
+    {
+      deleteResumeFile(p);
+      return;
+    }
+
+    try (FileWriter writer = new FileWriter(p.outputFilePath + RESUME_FILE_EXTENSION))
+    {
+      writer.write(p.url + "\n" + validator + "\n");
+    }
+    catch (IOException ex)
+    {
+      Logger.w(TAG, "Failed to save resume info for " + p.outputFilePath, ex);
+    }
+  }
+
+  private static void deleteResumeFile(@NonNull Params p)
+  {
+    final File resumeFile = new File(p.outputFilePath + RESUME_FILE_EXTENSION);
+    if (resumeFile.exists() && !resumeFile.delete())
+      Logger.w(TAG, "Failed to delete " + resumeFile);
+  }
+
   @NonNull
   private static InputStream getInputStream(@NonNull HttpURLConnection connection) throws IOException
   {
@@ -225,6 +359,69 @@ public final class HttpClient
     return in;
   }
 
+  /**
+   * Passes the response body to the native code in fixed-size slices of a direct buffer,
+   * so the memory used in Java doesn't depend on the response size.
+   */
+  private static class ResponseSinkStream extends OutputStream
+  {
+    private static final ThreadLocal<ByteBuffer> sBuffer = new ThreadLocal<>() {
+      @Override
+      protected ByteBuffer initialValue()
+      {
+        return ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE);
+      }
+    };
+
+    private final long mSink;
+    private final ByteBuffer mBuffer = sBuffer.get();
+
+    ResponseSinkStream(long sink)
+    {
+      mSink = sink;
+      mBuffer.clear();
+    }
+
+    @Override
+    public void write(int b)
+    {
+      if (!mBuffer.hasRemaining())
+        flush();
+      mBuffer.put((byte) b);
+    }
+
+    @Override
+    public void write(@NonNull byte[] b, int off, int len)
+    {
+      while (len > 0)
+      {
+        if (!mBuffer.hasRemaining())
+          flush();
+        final int size = Math.min(len, mBuffer.remaining());
+        mBuffer.put(b, off, size);
+        off += size;
+        len -= size;
+      }
+    }
+
+    @Override
+    public void flush()
+    {
+      if (mBuffer.position() == 0)
+        return;
+      nativeWriteResponse(mSink, mBuffer, mBuffer.position());
+      mBuffer.clear();
+    }
+
+    @Override
+    public void close()
+    {
+      flush();
+    }
+  }
+
+  private static native void nativeWriteResponse(long responseSink, ByteBuffer data, int size);
+
   // Used by JNI.
   @Keep
   @SuppressWarnings("unused")
@@ -259,6 +456,8 @@ public final class HttpClient
     boolean followRedirects = true;
     boolean loadHeaders;
     int timeoutMillisec = Constants.READ_TIMEOUT_MS;
+    // Native string the response body is appended to instead of data, if set.
+    long responseSink;
 
     // Simple GET request constructor.
     public Params(String url)
@@ -0,0 +1,111 @@
+package app.organicmaps.sdk.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import app.organicmaps.sdk.downloader.Android7RootCertificateWorkaround;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens the connections for {@link HttpClient} and the map downloader.
+ * <p>
+ * Connections are kept alive by default: a connection whose response was read completely is released
+ * without disconnect() and is reused for the next request to the same host. The requests with a body close
+ * the connection, unless the host opts in with {@link HostConfig}. TLS sessions are resumed,
+ * because all the connections share the same SSL socket factory and its session cache.
+ * <p>
+ * The way connections are created is pluggable per host, e.g. a factory backed by an HTTP/2 capable
+ * client multiplexes all the requests to the host over a single connection.
+ */
+public final class HttpTransport
+{
+  public interface ConnectionFactory
+  {
+    @NonNull
+    HttpURLConnection open(@NonNull URL url) throws IOException;
+  }
+
+  public static final class HostConfig
+  {
+    private final boolean mKeepAlive;
+    private final boolean mKeepAliveWithBody;
+    @Nullable
+    private final ConnectionFactory mFactory;
+
+    /**
+     * @param keepAlive         false to close the connection after every request, for the servers which fail
+     *                          on the reused connections, e.g. with "java.net.ProtocolException: Unexpected status
+     *                          line".
+     * @param keepAliveWithBody true to keep the connection alive after the requests with a body (POST, PUT...) too,
+     *                          they close it by default.
+     * @param factory           creates connections to the host, the default factory is used if null.
+     */
+    public HostConfig(boolean keepAlive, boolean keepAliveWithBody, @Nullable ConnectionFactory factory)
+    {
+      mKeepAlive = keepAlive;
+      mKeepAliveWithBody = keepAlive && keepAliveWithBody;
+      mFactory = factory;
+    }
+  }
+
+  private static final HostConfig DEFAULT_CONFIG = new HostConfig(true, false, null);
+
+  @NonNull
+  private static volatile ConnectionFactory sDefaultFactory = url -> (HttpURLConnection) url.openConnection();
+  private static final Map<String, HostConfig> sHostConfigs = new ConcurrentHashMap<>();
+
+  private HttpTransport() {}
+
+  public static void setDefaultFactory(@NonNull ConnectionFactory factory)
+  {
+    sDefaultFactory = factory;
+  }
+
+  public static void setHostConfig(@NonNull String host, @NonNull HostConfig config)
+  {
+    sHostConfigs.put(host, config);
+  }
+
+  @NonNull
+  private static HostConfig getConfig(@NonNull URL url)
+  {
+    final HostConfig config = sHostConfigs.get(url.getHost());
+    return config != null ? config : DEFAULT_CONFIG;
+  }
+
+  @NonNull
+  public static HttpURLConnection open(@NonNull URL url) throws IOException
+  {
+    final HostConfig config = getConfig(url);
+    final ConnectionFactory factory = config.mFactory != null ? config.mFactory : sDefaultFactory;
+    final HttpURLConnection connection = factory.open(url);
+    Android7RootCertificateWorkaround.applyFixIfNeeded(connection);
+    if (!config.mKeepAlive)
+      connection.setRequestProperty("Connection", "close");
+    return connection;
+  }
+
+  /**
+   * More than one consequent requests with a body over a reused connection could lead to stable
+   * "java.net.ProtocolException: Unexpected status line:" on a client and Nginx HTTP 499 errors, see
+   * http://stackoverflow.com/a/24303115/1209392
+   * @return true if the host opted in to keep the connection alive after a request with a body.
+   */
+  public static boolean isKeepAliveWithBody(@NonNull URL url)
+  {
+    return getConfig(url).mKeepAliveWithBody;
+  }
+
+  /**
+   * Releases the connection after the request is done. Its streams must be closed before.
+   * @param isReusable true if the response was read completely and the connection can be reused.
+   */
+  public static void release(@NonNull HttpURLConnection connection, boolean isReusable)
+  {
+    if (!isReusable || !getConfig(connection.getURL()).mKeepAlive)
+      connection.disconnect();
+  }
+}
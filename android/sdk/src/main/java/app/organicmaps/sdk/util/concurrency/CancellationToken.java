@@ -0,0 +1,22 @@
+package app.organicmaps.sdk.util.concurrency;
+
+/**
+ * Thread-safe
+ * <p>
+ * Cancels a group of tasks passed to a {@link Lane}. The tasks which are still queued are skipped,
+ * the running ones should check {@link #isCancelled()} between the steps of their work.
+ */
+public final class CancellationToken
+{
+  private volatile boolean mCancelled;
+
+  public void cancel()
+  {
+    mCancelled = true;
+  }
+
+  public boolean isCancelled()
+  {
+    return mCancelled;
+  }
+}
@@ -0,0 +1,358 @@
+package app.organicmaps.sdk.util.concurrency;
+
+import android.os.Process;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe
+ * <p>
+ * Named executor with its own threads, so unrelated kinds of work don't queue behind each other.
+ * Queued tasks run in the order of their priority, FIFO within the same priority.
+ * <p>
+ * The queue is bounded: when it is full, the producers on the background threads wait for a free slot.
+ * The UI thread is never blocked, its tasks are queued over the capacity and counted as overflowed.
+ * Callers which prefer to drop the task when the lane is busy use {@link #tryExecute}.
+ */
+public final class Lane extends AbstractExecutorService
+{
+  public enum Priority
+  {
+    HIGH,
+    NORMAL,
+    LOW
+  }
+
+  /**
+   * Counters of the lane since it was created. Times are in milliseconds.
+   */
+  public static final class Metrics
+  {
+    @NonNull
+    public final String name;
+    public final int queueDepth;
+    public final long completed;
+    public final long cancelled;
+    public final long rejected;
+    public final long overflowed;
+    public final long totalWaitMs;
+    public final long maxWaitMs;
+    public final long totalRunMs;
+    public final long maxRunMs;
+
+    private Metrics(@NonNull String name, int queueDepth, long completed, long cancelled, long rejected,
+                    long overflowed, long totalWaitMs, long maxWaitMs, long totalRunMs, long maxRunMs)
+    {
+      this.name = name;
+      this.queueDepth = queueDepth;
+      this.completed = completed;
+      this.cancelled = cancelled;
+      this.rejected = rejected;
+      this.overflowed = overflowed;
+      this.totalWaitMs = totalWaitMs;
+      this.maxWaitMs = maxWaitMs;
+      this.totalRunMs = totalRunMs;
+      this.maxRunMs = maxRunMs;
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+      final long started = Math.max(1, completed);
+      return String.format(Locale.US, "%s: queued=%d completed=%d cancelled=%d rejected=%d overflowed=%d"
+                                          + " wait avg=%d max=%d run avg=%d max=%d",
+                           name, queueDepth, completed, cancelled, rejected, overflowed, totalWaitMs / started,
+                           maxWaitMs, totalRunMs / started, maxRunMs);
+    }
+  }
+
+  @NonNull
+  private final String mName;
+  @NonNull
+  private final ThreadPoolExecutor mExecutor;
+  // Free places in the queue.
+  @NonNull
+  private final Semaphore mSlots;
+  private final AtomicLong mSequence = new AtomicLong();
+
+  // Metrics, guarded by this.
+  private long mCompleted;
+  private long mCancelled;
+  private long mRejected;
+  private long mOverflowed;
+  private long mTotalWaitMs;
+  private long mMaxWaitMs;
+  private long mTotalRunMs;
+  private long mMaxRunMs;
+
+  /**
+   * @param threads        number of the threads, they are stopped after keepAliveSec without tasks.
+   * @param capacity       max number of the queued tasks.
+   * @param threadPriority one of android.os.Process.THREAD_PRIORITY_* values.
+   */
+  public Lane(@NonNull String name, int threads, int capacity, int threadPriority, long keepAliveSec)
+  {
+    mName = name;
+    mSlots = new Semaphore(capacity);
+    mExecutor = new ThreadPoolExecutor(threads, threads, keepAliveSec, TimeUnit.SECONDS,
+                                       new PriorityBlockingQueue<>(), createThreadFactory(name, threadPriority));
+    mExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  @NonNull
+  private static ThreadFactory createThreadFactory(@NonNull String name, int threadPriority)
+  {
+    final AtomicInteger number = new AtomicInteger();
+    return runnable -> new Thread(() -> {
+      Process.setThreadPriority(threadPriority);
+      runnable.run();
+    }, name + "-" + number.incrementAndGet());
+  }
+
+  @NonNull
+  public String getName()
+  {
+    return mName;
+  }
+
+  @Override
+  public void execute(@NonNull Runnable command)
+  {
+    execute(command, Priority.NORMAL, null);
+  }
+
+  /**
+   * Queues the task. A background thread waits while the queue is full, the UI thread queues it over the capacity.
+   * @param token the task is skipped if the token is cancelled before the task is started.
+   */
+  public void execute(@NonNull Runnable command, @NonNull Priority priority, @Nullable CancellationToken token)
+  {
+    if (isCancelled(token))
+      return;
+
+    enqueue(new Job(command, priority, token, acquireSlot()));
+  }
+
+  /**
+   * Queues the task only if there is a free place in the queue, never waits.
+   * @return false if the queue is full and the task is dropped.
+   */
+  public boolean tryExecute(@NonNull Runnable command, @NonNull Priority priority, @Nullable CancellationToken token)
+  {
+    if (isCancelled(token))
+      return true;
+
+    if (!mSlots.tryAcquire())
+    {
+      onRejected();
+      return false;
+    }
+    enqueue(new Job(command, priority, token, true));
+    return true;
+  }
+
+  private boolean isCancelled(@Nullable CancellationToken token)
+  {
+    if (token == null || !token.isCancelled())
+      return false;
+    synchronized (this)
+    {
+      ++mCancelled;
+    }
+    return true;
+  }
+
+  private void enqueue(@NonNull Job job)
+  {
+    try
+    {
+      mExecutor.execute(job);
+    }
+    catch (RejectedExecutionException e)
+    {
+      // The lane is shut down.
+      job.releaseSlot();
+      onRejected();
+      throw e;
+    }
+  }
+
+  @NonNull
+  public <T> Future<T> submit(@NonNull Callable<T> task, @NonNull Priority priority)
+  {
+    final RunnableFuture<T> future = newTaskFor(task);
+    execute(future, priority, null);
+    return future;
+  }
+
+  @NonNull
+  public Future<?> submit(@NonNull Runnable task, @NonNull Priority priority)
+  {
+    final RunnableFuture<Void> future = newTaskFor(task, null);
+    execute(future, priority, null);
+    return future;
+  }
+
+  @NonNull
+  public synchronized Metrics getMetrics()
+  {
+    return new Metrics(mName, mExecutor.getQueue().size(), mCompleted, mCancelled, mRejected, mOverflowed,
+                       mTotalWaitMs, mMaxWaitMs, mTotalRunMs, mMaxRunMs);
+  }
+
+  // Returns false if the task is queued over the capacity without a slot.
+  private boolean acquireSlot()
+  {
+    if (mSlots.tryAcquire())
+      return true;
+
+    if (!UiThread.isUiThread())
+    {
+      try
+      {
+        mSlots.acquire();
+        return true;
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    onOverflowed();
+    return false;
+  }
+
+  private synchronized void onOverflowed()
+  {
+    ++mOverflowed;
+  }
+
+  private synchronized void onRejected()
+  {
+    ++mRejected;
+  }
+
+  private synchronized void onStarted(long waitMs, boolean isCancelled)
+  {
+    mTotalWaitMs += waitMs;
+    mMaxWaitMs = Math.max(mMaxWaitMs, waitMs);
+    if (isCancelled)
+      ++mCancelled;
+  }
+
+  private synchronized void onFinished(long runMs)
+  {
+    ++mCompleted;
+    mTotalRunMs += runMs;
+    mMaxRunMs = Math.max(mMaxRunMs, runMs);
+  }
+
+  @Override
+  public void shutdown()
+  {
+    mExecutor.shutdown();
+  }
+
+  @NonNull
+  @Override
+  public List<Runnable> shutdownNow()
+  {
+    final List<Runnable> tasks = new ArrayList<>();
+    for (Runnable job : mExecutor.shutdownNow())
+      tasks.add(((Job) job).mTask);
+    return tasks;
+  }
+
+  @Override
+  public boolean isShutdown()
+  {
+    return mExecutor.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated()
+  {
+    return mExecutor.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException
+  {
+    return mExecutor.awaitTermination(timeout, unit);
+  }
+
+  private final class Job implements Runnable, Comparable<Job>
+  {
+    @NonNull
+    private final Runnable mTask;
+    @NonNull
+    private final Priority mPriority;
+    @Nullable
+    private final CancellationToken mToken;
+    // False if the job is queued over the capacity.
+    private final boolean mHasSlot;
+    private final long mOrder;
+    private final long mQueuedAt;
+
+    Job(@NonNull Runnable task, @NonNull Priority priority, @Nullable CancellationToken token, boolean hasSlot)
+    {
+      mTask = task;
+      mPriority = priority;
+      mToken = token;
+      mHasSlot = hasSlot;
+      mOrder = mSequence.getAndIncrement();
+      mQueuedAt = SystemClock.elapsedRealtime();
+    }
+
+    void releaseSlot()
+    {
+      if (mHasSlot)
+        mSlots.release();
+    }
+
+    @Override
+    public void run()
+    {
+      releaseSlot();
+      final long startedAt = SystemClock.elapsedRealtime();
+      final boolean isCancelled = mToken != null && mToken.isCancelled();
+      onStarted(startedAt - mQueuedAt, isCancelled);
+      if (isCancelled)
+        return;
+
+      try
+      {
+        mTask.run();
+      }
+      finally
+      {
+        onFinished(SystemClock.elapsedRealtime() - startedAt);
+      }
+    }
+
+    @Override
+    public int compareTo(@NonNull Job other)
+    {
+      final int result = mPriority.compareTo(other.mPriority);
+      return result != 0 ? result : Long.compare(mOrder, other.mOrder);
+    }
+  }
+}
@@ -1,35 +1,42 @@
 package app.organicmaps.sdk.util.concurrency;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import android.os.Process;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Lanes of the background work. User-visible file operations, bulk background jobs and other tasks
+ * run on separate lanes and don't wait for each other.
+ */
 public class ThreadPool
 {
   private static final ThreadPool sInstance = new ThreadPool();
 
-  private final ThreadPoolExecutor mStorage;
-  private final ThreadPoolExecutor mWorker;
+  private final Lane mStorage;
+  private final Lane mWorker;
+  private final Lane mBackground;
+  private final List<Lane> mLanes = new ArrayList<>();
 
-  private static ThreadPoolExecutor create(int poolSize, int allowedTime)
+  private ThreadPool()
   {
-    ThreadPoolExecutor res =
-        new ThreadPoolExecutor(poolSize, poolSize, allowedTime, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
-    res.allowCoreThreadTimeOut(true);
-    return res;
+    mStorage = register(new Lane("Storage", 1, 64, Process.THREAD_PRIORITY_DEFAULT, 500));
+    mWorker = register(new Lane("Worker", 1, 64, Process.THREAD_PRIORITY_DEFAULT, 250));
+    mBackground = register(new Lane("Background", 1, 256, Process.THREAD_PRIORITY_BACKGROUND, 60));
   }
 
-  private ThreadPool()
+  @NonNull
+  private synchronized Lane register(@NonNull Lane lane)
   {
-    mStorage = create(1, 500);
-    mWorker = create(1, 250);
+    mLanes.add(lane);
+    return lane;
   }
 
   /**
-   * Returns single thread for file operations.
+   * Returns single thread for file operations the user waits for, e.g. imports and moving the maps.
    */
-  public static ExecutorService getStorage()
+  @NonNull
+  public static Lane getStorage()
   {
     return sInstance.mStorage;
   }
@@ -37,8 +44,39 @@ public class ThreadPool
   /**
    * Returns single thread for various background tasks.
    */
-  public static ExecutorService getWorker()
+  @NonNull
+  public static Lane getWorker()
   {
     return sInstance.mWorker;
   }
+
+  /**
+   * Returns single low priority thread for bulk jobs the user doesn't wait for, e.g. backups and scans.
+   */
+  @NonNull
+  public static Lane getBackground()
+  {
+    return sInstance.mBackground;
+  }
+
+  /**
+   * Creates a new lane which is reported by {@link #getMetrics()}.
+   */
+  @NonNull
+  public static Lane createLane(@NonNull String name, int threads, int capacity, int threadPriority)
+  {
+    return sInstance.register(new Lane(name, threads, capacity, threadPriority, 60));
+  }
+
+  @NonNull
+  public static List<Lane.Metrics> getMetrics()
+  {
+    synchronized (sInstance)
+    {
+      final List<Lane.Metrics> metrics = new ArrayList<>(sInstance.mLanes.size());
+      for (Lane lane : sInstance.mLanes)
+        metrics.add(lane.getMetrics());
+      return metrics;
+    }
+  }
 }
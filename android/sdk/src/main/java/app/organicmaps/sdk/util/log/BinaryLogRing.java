@@ -0,0 +1,293 @@
+package app.organicmaps.sdk.util.log;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Thread-safe
+ * <p>
+ * Binary log in a fixed-size memory-mapped file. New records overwrite the oldest ones, so the file keeps
+ * the last FILE_SIZE of logs, and the data written before a crash of the process is kept by the system.
+ * Records are converted to text only by {@link #decode(Writer)} when the logs are exported.
+ * <p>
+ * File layout: header, table of the tag names and the ring of the records. Record is
+ * [int length][long time][byte level][int thread id][short tag id][message in UTF-8].
+ * Zero length marks the end of the data before the ring wraps around.
+ */
+final class BinaryLogRing
+{
+  private static final String TAG = BinaryLogRing.class.getSimpleName();
+
+  static final String FILENAME = "app.logring";
+
+  private static final int MAGIC = 0x4F4D4C52;
+  private static final int VERSION = 1;
+  private static final int FILE_SIZE = 4 * 1024 * 1024;
+
+  private static final int HEADER_SIZE = 32;
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 4;
+  private static final int HEAD_OFFSET = 8;
+  private static final int TAIL_OFFSET = 12;
+  private static final int COUNT_OFFSET = 16;
+  private static final int TAGS_COUNT_OFFSET = 20;
+
+  private static final int TAGS_CAPACITY = 256;
+  private static final int TAG_SIZE = 64;
+  private static final int TAGS_OFFSET = HEADER_SIZE;
+  private static final int DATA_OFFSET = TAGS_OFFSET + TAGS_CAPACITY * TAG_SIZE;
+  private static final int DATA_SIZE = FILE_SIZE - DATA_OFFSET;
+
+  private static final int RECORD_HEADER_SIZE = 4 + 8 + 1 + 4 + 2;
+  private static final int MAX_MESSAGE_SIZE = 8 * 1024;
+  // Tag id of the records written when the tags table is full.
+  private static final short UNKNOWN_TAG = TAGS_CAPACITY;
+
+  @NonNull
+  private final MappedByteBuffer mBuffer;
+  private final Map<String, Short> mTags = new HashMap<>();
+  // Offsets in the data area.
+  private int mHead;
+  private int mTail;
+  private int mCount;
+
+  /**
+   * Opens the existing ring to continue it or creates a new one.
+   */
+  BinaryLogRing(@NonNull File file) throws IOException
+  {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+    {
+      final boolean isNew = raf.length() != FILE_SIZE;
+      if (isNew)
+        raf.setLength(FILE_SIZE);
+      // Mapping stays valid after the channel is closed.
+      mBuffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+      if (isNew || !load())
+        reset();
+    }
+  }
+
+  synchronized void append(int level, @NonNull String tag, @NonNull String message)
+  {
+    byte[] text = message.getBytes(StandardCharsets.UTF_8);
+    if (text.length > MAX_MESSAGE_SIZE)
+      text = Arrays.copyOf(text, MAX_MESSAGE_SIZE);
+    final int length = RECORD_HEADER_SIZE + text.length;
+
+    if (mTail + length > DATA_SIZE)
+    {
+      evict(mTail, DATA_SIZE);
+      if (DATA_SIZE - mTail >= 4)
+        mBuffer.putInt(DATA_OFFSET + mTail, 0);
+      mTail = 0;
+    }
+    evict(mTail, mTail + length);
+    if (mCount == 0)
+      mHead = mTail;
+
+    int pos = DATA_OFFSET + mTail;
+    mBuffer.putInt(pos, length);
+    mBuffer.putLong(pos + 4, System.currentTimeMillis());
+    mBuffer.put(pos + 12, (byte) level);
+    mBuffer.putInt(pos + 13, (int) Thread.currentThread().getId());
+    mBuffer.putShort(pos + 17, getTagId(tag));
+    mBuffer.position(pos + RECORD_HEADER_SIZE);
+    mBuffer.put(text);
+
+    mTail += length;
+    if (mTail == DATA_SIZE)
+      mTail = 0;
+    ++mCount;
+
+    // Header is updated after the record is complete.
+    mBuffer.putInt(HEAD_OFFSET, mHead);
+    mBuffer.putInt(TAIL_OFFSET, mTail);
+    mBuffer.putInt(COUNT_OFFSET, mCount);
+  }
+
+  /**
+   * Writes the records of this ring as text.
+   */
+  void decode(@NonNull Writer out) throws IOException
+  {
+    final ByteBuffer snapshot = ByteBuffer.allocate(FILE_SIZE);
+    synchronized (this)
+    {
+      final ByteBuffer source = mBuffer.duplicate();
+      source.clear();
+      snapshot.put(source);
+    }
+    decode(snapshot, out);
+  }
+
+  /**
+   * Writes the records of the ring file as text, e.g. of the file left by the previous run of the app.
+   */
+  static void decode(@NonNull File file, @NonNull Writer out) throws IOException
+  {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+    {
+      if (raf.length() != FILE_SIZE)
+        throw new IOException("Unexpected size of " + file + ": " + raf.length());
+      final ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+      raf.getChannel().read(buffer, 0);
+      decode(buffer, out);
+    }
+  }
+
+  private static void decode(@NonNull ByteBuffer buffer, @NonNull Writer out) throws IOException
+  {
+    if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION)
+      throw new IOException("Unsupported format of the log ring");
+
+    final String[] tags = readTags(buffer);
+    final DateFormat fmt = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+    final Date date = new Date();
+
+    final int count = buffer.getInt(COUNT_OFFSET);
+    int offset = buffer.getInt(HEAD_OFFSET);
+    if (offset < 0 || offset + RECORD_HEADER_SIZE > DATA_SIZE)
+      throw new IOException("Corrupted header of the log ring");
+    for (int i = 0; i < count; ++i)
+    {
+      final int pos = DATA_OFFSET + offset;
+      final int length = buffer.getInt(pos);
+      // Record could be partially written if the system was shut down in the middle.
+      if (length < RECORD_HEADER_SIZE || offset + length > DATA_SIZE)
+      {
+        out.write("Corrupted log record at " + offset + "\n");
+        break;
+      }
+
+      date.setTime(buffer.getLong(pos + 4));
+      final int level = buffer.get(pos + 12);
+      final int threadId = buffer.getInt(pos + 13);
+      final int tagId = buffer.getShort(pos + 17);
+      final String tag = tagId >= 0 && tagId < tags.length ? tags[tagId] : "Unknown";
+      final String message =
+          new String(buffer.array(), pos + RECORD_HEADER_SIZE, length - RECORD_HEADER_SIZE, StandardCharsets.UTF_8);
+      out.write(fmt.format(date) + " (" + threadId + ") " + Logger.getLevelChar(level) + '/' + tag + ": " + message
+                + "\n");
+
+      offset = next(buffer, offset);
+    }
+  }
+
+  // Drops the oldest records which start in the [from, to) range of the data area.
+  private void evict(int from, int to)
+  {
+    while (mCount > 0 && mHead >= from && mHead < to)
+    {
+      mHead = next(mBuffer, mHead);
+      --mCount;
+    }
+  }
+
+  // Returns offset of the record after the given one, wraps around at the end of the data.
+  private static int next(@NonNull ByteBuffer buffer, int offset)
+  {
+    final int next = offset + buffer.getInt(DATA_OFFSET + offset);
+    if (next + 4 > DATA_SIZE || buffer.getInt(DATA_OFFSET + next) == 0)
+      return 0;
+    return next;
+  }
+
+  private short getTagId(@NonNull String tag)
+  {
+    final Short id = mTags.get(tag);
+    if (id != null)
+      return id;
+
+    final int count = mTags.size();
+    if (count == TAGS_CAPACITY)
+      return UNKNOWN_TAG;
+
+    byte[] name = tag.getBytes(StandardCharsets.UTF_8);
+    if (name.length > TAG_SIZE - 1)
+      name = Arrays.copyOf(name, TAG_SIZE - 1);
+    final int pos = TAGS_OFFSET + count * TAG_SIZE;
+    mBuffer.put(pos, (byte) name.length);
+    for (int i = 0; i < name.length; ++i)
+      mBuffer.put(pos + 1 + i, name[i]);
+    mBuffer.putInt(TAGS_COUNT_OFFSET, count + 1);
+
+    final short newId = (short) count;
+    mTags.put(tag, newId);
+    return newId;
+  }
+
+  @NonNull
+  private static String[] readTags(@NonNull ByteBuffer buffer)
+  {
+    final int count = Math.min(Math.max(buffer.getInt(TAGS_COUNT_OFFSET), 0), TAGS_CAPACITY);
+    final String[] tags = new String[count];
+    final byte[] name = new byte[TAG_SIZE];
+    for (int i = 0; i < count; ++i)
+    {
+      final int pos = TAGS_OFFSET + i * TAG_SIZE;
+      final int length = Math.min(buffer.get(pos) & 0xFF, TAG_SIZE - 1);
+      for (int j = 0; j < length; ++j)
+        name[j] = buffer.get(pos + 1 + j);
+      tags[i] = new String(name, 0, length, StandardCharsets.UTF_8);
+    }
+    return tags;
+  }
+
+  private boolean load()
+  {
+    if (mBuffer.getInt(MAGIC_OFFSET) != MAGIC || mBuffer.getInt(VERSION_OFFSET) != VERSION)
+      return false;
+
+    mHead = mBuffer.getInt(HEAD_OFFSET);
+    mTail = mBuffer.getInt(TAIL_OFFSET);
+    mCount = mBuffer.getInt(COUNT_OFFSET);
+    if (mHead < 0 || mHead >= DATA_SIZE || mTail < 0 || mTail >= DATA_SIZE || mCount < 0)
+    {
+      Log.w(TAG, "Corrupted log ring header, starting a new one");
+      return false;
+    }
+
+    final String[] tags = readTags(mBuffer);
+    for (int i = 0; i < tags.length; ++i)
+      mTags.put(tags[i], (short) i);
+    return true;
+  }
+
+  private void reset()
+  {
+    mHead = 0;
+    mTail = 0;
+    mCount = 0;
+    mTags.clear();
+    mBuffer.putInt(MAGIC_OFFSET, MAGIC);
+    mBuffer.putInt(VERSION_OFFSET, VERSION);
+    mBuffer.putInt(HEAD_OFFSET, 0);
+    mBuffer.putInt(TAIL_OFFSET, 0);
+    mBuffer.putInt(COUNT_OFFSET, 0);
+    mBuffer.putInt(TAGS_COUNT_OFFSET, 0);
+  }
+
+  /**
+   * Writes the mapped data to the file, the ring must not be used after that.
+   */
+  synchronized void close()
+  {
+    mBuffer.force();
+  }
+}
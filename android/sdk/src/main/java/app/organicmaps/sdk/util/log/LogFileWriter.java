@@ -0,0 +1,208 @@
+package app.organicmaps.sdk.util.log;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe
+ * <p>
+ * Writes log lines to the file in batches. Lines are collected in a fixed-size ring buffer and are written
+ * on the logger thread through a single long-lived writer, when the buffer is half full or in FLUSH_DELAY_MS
+ * after the first pending line. The oldest lines are dropped if the logger thread can't keep up.
+ * <p>
+ * The file is rotated when it exceeds MAX_SIZE, the previous one is kept with ROTATED_SUFFIX.
+ * <p>
+ * Only system logging is used here to avoid infinite loop.
+ */
+final class LogFileWriter
+{
+  private static final String TAG = LogFileWriter.class.getSimpleName();
+
+  private static final int CAPACITY = 1024;
+  private static final int FLUSH_THRESHOLD = CAPACITY / 2;
+  private static final long FLUSH_DELAY_MS = 500;
+  private static final int BUFFER_SIZE = 16 * 1024;
+  private static final long MAX_SIZE = 3000000;
+  static final String ROTATED_SUFFIX = ".1";
+
+  // Pending lines, guarded by this.
+  private final long[] mTimes = new long[CAPACITY];
+  private final String[] mLines = new String[CAPACITY];
+  private int mHead;
+  private int mSize;
+  private int mDropped;
+  @Nullable
+  private String mPendingPath;
+  private boolean mFlushQueued;
+  private boolean mFlushScheduled;
+
+  // Accessed from the logger thread only.
+  @Nullable
+  private Writer mWriter;
+  @Nullable
+  private String mPath;
+  private long mFileSize;
+  private final DateFormat mDateFormat = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+  private final Date mDate = new Date();
+
+  void write(@NonNull String filePath, @NonNull String line)
+  {
+    synchronized (this)
+    {
+      if (mSize == CAPACITY)
+      {
+        mHead = (mHead + 1) % CAPACITY;
+        --mSize;
+        ++mDropped;
+      }
+      final int tail = (mHead + mSize) % CAPACITY;
+      mTimes[tail] = System.currentTimeMillis();
+      mLines[tail] = line;
+      ++mSize;
+      mPendingPath = filePath;
+
+      if (mSize >= FLUSH_THRESHOLD)
+      {
+        if (mFlushQueued)
+          return;
+        mFlushQueued = true;
+      }
+      else
+      {
+        if (mFlushScheduled || mFlushQueued)
+          return;
+        mFlushScheduled = true;
+        LogsManager.EXECUTOR.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        return;
+      }
+    }
+    LogsManager.EXECUTOR.execute(this::flush);
+  }
+
+  /**
+   * Writes all the pending lines to the file. Must be called on the logger thread.
+   */
+  void flush()
+  {
+    final long[] times;
+    final String[] lines;
+    final int dropped;
+    final String path;
+    synchronized (this)
+    {
+      mFlushQueued = false;
+      mFlushScheduled = false;
+      if (mSize == 0)
+        return;
+
+      times = new long[mSize];
+      lines = new String[mSize];
+      for (int i = 0; i < mSize; ++i)
+      {
+        final int index = (mHead + i) % CAPACITY;
+        times[i] = mTimes[index];
+        lines[i] = mLines[index];
+        mLines[index] = null;
+      }
+      mHead = 0;
+      mSize = 0;
+      dropped = mDropped;
+      mDropped = 0;
+      path = mPendingPath;
+    }
+
+    try
+    {
+      ensureOpened(path);
+      if (dropped > 0)
+        writeLine(times[0], TAG + ": " + dropped + " lines were dropped");
+      for (int i = 0; i < lines.length; ++i)
+        writeLine(times[i], lines[i]);
+      mWriter.flush();
+    }
+    catch (IOException e)
+    {
+      Log.e(TAG, "Failed to write to " + path, e);
+      close();
+    }
+  }
+
+  /**
+   * Closes the file, the next flush reopens it. Must be called on the logger thread.
+   */
+  void close()
+  {
+    if (mWriter == null)
+      return;
+    try
+    {
+      mWriter.close();
+    }
+    catch (IOException e)
+    {
+      Log.e(TAG, "Failed to close file " + mPath, e);
+    }
+    mWriter = null;
+  }
+
+  private void writeLine(long time, @NonNull String line) throws IOException
+  {
+    mDate.setTime(time);
+    final String text = mDateFormat.format(mDate) + " " + line + "\n";
+    mWriter.write(text);
+    mFileSize += text.length();
+    if (mFileSize > MAX_SIZE)
+      rotate();
+  }
+
+  private void ensureOpened(@NonNull String path) throws IOException
+  {
+    final File file = new File(path);
+    // The file can be removed by the user while it is opened.
+    if (mWriter != null && path.equals(mPath) && file.exists())
+      return;
+
+    close();
+    mPath = path;
+    if (file.exists() && file.length() <= MAX_SIZE)
+    {
+      mWriter = new BufferedWriter(new FileWriter(file, true), BUFFER_SIZE);
+      mFileSize = file.length();
+    }
+    else if (file.exists())
+      rotate();
+    else
+      create();
+  }
+
+  private void rotate() throws IOException
+  {
+    close();
+    final File file = new File(mPath);
+    final File rotated = new File(mPath + ROTATED_SUFFIX);
+    if (rotated.exists() && !rotated.delete())
+      Log.e(TAG, "Failed to delete " + rotated);
+    if (!file.renameTo(rotated))
+      Log.e(TAG, "Failed to rename " + file + " to " + rotated);
+    create();
+  }
+
+  private void create() throws IOException
+  {
+    mWriter = new BufferedWriter(new FileWriter(mPath, false), BUFFER_SIZE);
+    final String header = LogsManager.INSTANCE.getSystemInformation();
+    mWriter.write(header);
+    mFileSize = header.length();
+  }
+}
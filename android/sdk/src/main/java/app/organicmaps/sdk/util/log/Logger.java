@@ -6,20 +6,81 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import app.organicmaps.sdk.BuildConfig;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /// Thread-safe
 public final class Logger
 {
-  private static final String TAG = Logger.class.getSimpleName();
   private static final String CORE_TAG = "OMcore";
   private static final String FILENAME = "app.log";
 
+  // Minimum levels of the tags, other tags log all levels.
+  private static final Map<String, Integer> sTagLevels = new ConcurrentHashMap<>();
+  // Source point of the caller costs a stack trace per line, so it is added to the important lines only.
+  private static volatile int sSourcePointLevel = BuildConfig.DEBUG ? Log.VERBOSE : Log.WARN;
+  // Every N-th line below sSourcePointLevel gets the source point too, 0 to disable.
+  private static volatile int sSourcePointSampling = 0;
+  private static final AtomicInteger sLinesCounter = new AtomicInteger();
+
+  /**
+   * Skips lines of the tag below the level before any formatting.
+   */
+  public static void setLevel(@NonNull String tag, int level)
+  {
+    sTagLevels.put(tag, level);
+  }
+
+  public static void resetLevel(@NonNull String tag)
+  {
+    sTagLevels.remove(tag);
+  }
+
+  /**
+   * Adds the caller's file, line and method to the lines of the level and above.
+   */
+  public static void setSourcePointLevel(int level)
+  {
+    sSourcePointLevel = level;
+  }
+
+  /**
+   * Adds the caller's file, line and method to every N-th line below the source point level, 0 to disable.
+   */
+  public static void setSourcePointSampling(int everyNth)
+  {
+    sSourcePointSampling = everyNth;
+  }
+
+  /**
+   * Allows to skip building of expensive messages on hot paths.
+   * @return true if the line of the level with the tag would be logged.
+   */
+  public static boolean isLoggable(@NonNull String tag, int level)
+  {
+    return isTagLoggable(tag, level)
+        && (BuildConfig.DEBUG || level >= Log.INFO || LogsManager.INSTANCE.isFileLoggingEnabled());
+  }
+
+  private static boolean isTagLoggable(@Nullable String tag, int level)
+  {
+    // Core filters its logs itself.
+    if (tag == null || sTagLevels.isEmpty())
+      return true;
+    final Integer minLevel = sTagLevels.get(tag);
+    return minLevel == null || level >= minLevel;
+  }
+
+  private static boolean needsSourcePoint(int level, @NonNull String msg)
+  {
+    // Lines without a message are used to trace the calls.
+    if (level >= sSourcePointLevel || msg.isEmpty())
+      return true;
+    final int sampling = sSourcePointSampling;
+    return sampling > 0 && sLinesCounter.incrementAndGet() % sampling == 0;
+  }
+
   public static void v(String tag)
   {
     log(Log.VERBOSE, tag, "", null);
@@ -115,13 +176,16 @@ public final class Logger
   @Keep
   private static void log(int level, @Nullable String tag, @NonNull String msg, @Nullable Throwable tr)
   {
+    if (!isTagLoggable(tag, level))
+      return;
+
     final String logsFolder = LogsManager.INSTANCE.getEnabledLogsFolder();
 
     if (logsFolder != null || BuildConfig.DEBUG || level >= Log.INFO)
     {
       final StringBuilder sb = new StringBuilder(180);
-      // Add source point info for file logging, debug builds and ERRORs if its not from core.
-      if (tag != null && (logsFolder != null || BuildConfig.DEBUG || level == Log.ERROR))
+      // Add source point info if its not from core.
+      if (tag != null && needsSourcePoint(level, msg))
         sb.append(getSourcePoint()).append(": ");
       sb.append(msg);
       if (tr != null)
@@ -135,13 +199,19 @@ public final class Logger
 
       if (logsFolder != null)
       {
-        sb.insert(0, String.valueOf(getLevelChar(level)) + '/' + tag + ": ");
-        LogsManager.EXECUTOR.execute(new WriteTask(logsFolder + File.separator + FILENAME, threadName + sb));
+        final BinaryLogRing ring = LogsManager.INSTANCE.getLogRing();
+        if (ring != null)
+          ring.append(level, tag, sb.toString());
+        else
+        {
+          sb.insert(0, String.valueOf(getLevelChar(level)) + '/' + tag + ": ");
+          LogsManager.FILE_WRITER.write(logsFolder + File.separator + FILENAME, threadName + sb);
+        }
       }
     }
   }
 
-  private static char getLevelChar(int level)
+  static char getLevelChar(int level)
   {
     switch (level)
     {
@@ -154,56 +224,4 @@ public final class Logger
     assert false : "Unknown log level " + level;
     return '_';
   }
-
-  private static class WriteTask implements Runnable
-  {
-    private static final int MAX_SIZE = 3000000;
-    @NonNull
-    private final String mFilePath;
-    @NonNull
-    private final String mData;
-
-    private WriteTask(@NonNull String filePath, @NonNull String data)
-    {
-      mFilePath = filePath;
-      mData = data;
-    }
-
-    @Override
-    public void run()
-    {
-      FileWriter fw = null;
-      try
-      {
-        File file = new File(mFilePath);
-        if (!file.exists() || file.length() > MAX_SIZE)
-        {
-          fw = new FileWriter(file, false);
-          fw.write(LogsManager.INSTANCE.getSystemInformation());
-        }
-        else
-        {
-          fw = new FileWriter(mFilePath, true);
-        }
-        final DateFormat fmt = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
-        fw.write(fmt.format(new Date()) + " " + mData + "\n");
-      }
-      catch (IOException e)
-      {
-        Log.e(TAG, "Failed to write to " + mFilePath + ": " + mData, e);
-      }
-      finally
-      {
-        if (fw != null)
-          try
-          {
-            fw.close();
-          }
-          catch (IOException e)
-          {
-            Log.e(TAG, "Failed to close file " + mFilePath, e);
-          }
-      }
-    }
-  }
 }
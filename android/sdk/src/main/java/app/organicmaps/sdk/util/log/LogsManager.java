@@ -22,12 +22,13 @@ import app.organicmaps.sdk.util.Config;
 import app.organicmaps.sdk.util.ROMUtils;
 import app.organicmaps.sdk.util.StringUtils;
 import java.io.File;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Thread-safe
@@ -42,22 +43,27 @@ public final class LogsManager
 {
   public interface OnZipCompletedListener
   {
-    // Called from the logger thread.
+    // Called from a background thread.
     void onCompleted(final boolean success, @Nullable final String zipPath);
   }
 
   private final static String TAG = LogsManager.class.getSimpleName();
 
   public final static LogsManager INSTANCE = new LogsManager();
-  final static ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+  final static ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor();
+  final static LogFileWriter FILE_WRITER = new LogFileWriter();
 
   @Nullable
   private Context mApplicationContext;
   @Nullable
   private SharedPreferences mPrefs;
   private boolean mIsFileLoggingEnabled = false;
+  private boolean mIsBinaryLoggingEnabled = false;
   @Nullable
   private String mLogsFolder;
+  // Opened when file logging is enabled in the binary mode.
+  @Nullable
+  private volatile BinaryLogRing mLogRing;
 
   private LogsManager()
   {
@@ -72,6 +78,7 @@ public final class LogsManager
 
     mIsFileLoggingEnabled = mPrefs.getBoolean(mApplicationContext.getString(R.string.pref_enable_logging), false);
     Log.i(TAG, "isFileLoggingEnabled preference: " + mIsFileLoggingEnabled);
+    mIsBinaryLoggingEnabled = mPrefs.getBoolean(mApplicationContext.getString(R.string.pref_binary_logging), false);
     mIsFileLoggingEnabled = mIsFileLoggingEnabled && ensureLogsFolder() != null;
 
     // Set native logging level, save into shared preferences.
@@ -165,6 +172,12 @@ public final class LogsManager
   private void switchFileLoggingEnabled(boolean enabled)
   {
     mIsFileLoggingEnabled = enabled;
+    if (!enabled)
+      EXECUTOR.execute(FILE_WRITER::close);
+    if (enabled && mIsBinaryLoggingEnabled)
+      openLogRing();
+    else
+      closeLogRing();
     // Only Debug builds log DEBUG level to Android system log.
     nativeToggleCoreDebugLogs(enabled || BuildConfig.DEBUG);
     mPrefs.edit().putBoolean(mApplicationContext.getString(R.string.pref_enable_logging), enabled).apply();
@@ -200,6 +213,64 @@ public final class LogsManager
     return true;
   }
 
+  public synchronized boolean isBinaryLoggingEnabled()
+  {
+    return mIsBinaryLoggingEnabled;
+  }
+
+  /**
+   * Switches file logging between the text file and the memory-mapped ring of the last logs.
+   * The ring has a constant size and keeps the logs written right before a crash.
+   * <p>
+   * NOTE: initFileLogging() must be called before.
+   */
+  public synchronized void setBinaryLoggingEnabled(boolean enabled)
+  {
+    assertFileLoggingInit();
+
+    if (mIsBinaryLoggingEnabled == enabled)
+      return;
+    Log.i(TAG, "Switching isBinaryLoggingEnabled to " + enabled);
+    mIsBinaryLoggingEnabled = enabled;
+    mPrefs.edit().putBoolean(mApplicationContext.getString(R.string.pref_binary_logging), enabled).apply();
+    if (enabled && mIsFileLoggingEnabled)
+      openLogRing();
+    else
+      closeLogRing();
+  }
+
+  /**
+   * @return ring to write the logs to, null if the logs are written to the text file.
+   */
+  @Nullable
+  BinaryLogRing getLogRing()
+  {
+    return mLogRing;
+  }
+
+  private void openLogRing()
+  {
+    if (mLogRing != null || mLogsFolder == null)
+      return;
+    try
+    {
+      mLogRing = new BinaryLogRing(new File(mLogsFolder, BinaryLogRing.FILENAME));
+    }
+    catch (IOException e)
+    {
+      Log.e(TAG, "Can't open the log ring, falling back to the text log", e);
+    }
+  }
+
+  private void closeLogRing()
+  {
+    final BinaryLogRing ring = mLogRing;
+    if (ring == null)
+      return;
+    mLogRing = null;
+    ring.close();
+  }
+
   /**
    * NOTE: initFileLogging() must be called before.
    */
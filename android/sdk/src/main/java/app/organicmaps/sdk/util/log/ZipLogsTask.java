@@ -2,21 +2,37 @@ package app.organicmaps.sdk.util.log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+/**
+ * Zips the logs folder together with the system logcat and the decoded log ring.
+ * <p>
+ * Only the pending lines are flushed on the logger thread, the files are compressed on a separate thread,
+ * so file logging is not blocked by the export. Logcat and the log ring are streamed into the zip
+ * without temporary files.
+ */
 class ZipLogsTask implements Runnable
 {
   private static final String TAG = ZipLogsTask.class.getSimpleName();
 
+  private static final String LOGCAT_FILENAME = "logcat.log";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final ExecutorService ZIP_EXECUTOR = Executors.newSingleThreadExecutor();
+
   @NonNull
   private final String mLogsPath;
   @NonNull
@@ -32,10 +48,17 @@ class ZipLogsTask implements Runnable
     mOnCompletedListener = onCompletedListener;
   }
 
+  // Called on the logger thread.
   @Override
   public void run()
   {
-    saveSystemLogcat(mLogsPath);
+    // Lines which are not written yet are included too.
+    LogsManager.FILE_WRITER.flush();
+    ZIP_EXECUTOR.execute(this::zip);
+  }
+
+  private void zip()
+  {
     final boolean success = zipFileAtPath(mLogsPath, mZipPath);
     if (mOnCompletedListener != null)
       mOnCompletedListener.onCompleted(success, mZipPath);
@@ -46,20 +69,31 @@ class ZipLogsTask implements Runnable
     File sourceFile = new File(sourcePath);
     if (!sourceFile.isDirectory())
       return false;
+    // Logcat dumps its buffer while the header is written.
+    final Process logcat = startLogcat();
     try (FileOutputStream dest = new FileOutputStream(toLocation, false);
-         ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(dest)))
+         ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(dest, BUFFER_SIZE)))
     {
-      zipSubFolder(out, sourceFile, sourceFile.getPath().length());
+      final byte[] buffer = new byte[BUFFER_SIZE];
+      zipLogcat(out, logcat, buffer);
+      zipLogRing(out, sourceFile);
+      zipSubFolder(out, sourceFile, sourceFile.getPath().length(), buffer);
     }
     catch (Exception e)
     {
       Logger.e(TAG, "Failed to zip file '" + sourcePath + "' to location '" + toLocation + "'", e);
       return false;
     }
+    finally
+    {
+      if (logcat != null)
+        logcat.destroy();
+    }
     return true;
   }
 
-  private void zipSubFolder(ZipOutputStream out, File folder, int basePathLength) throws IOException
+  private void zipSubFolder(@NonNull ZipOutputStream out, @NonNull File folder, int basePathLength,
+                            @NonNull byte[] buffer) throws IOException
   {
     File[] fileList = folder.listFiles();
     if (fileList == null)
@@ -67,64 +101,94 @@ class ZipLogsTask implements Runnable
 
     for (File file : fileList)
     {
+      // The ring is included as decoded text, logcat is streamed. The logcat file could be left
+      // by the previous versions.
+      final String name = file.getName();
+      if (name.equals(BinaryLogRing.FILENAME) || name.equals(LOGCAT_FILENAME))
+        continue;
       if (file.isDirectory())
       {
-        zipSubFolder(out, file, basePathLength);
+        zipSubFolder(out, file, basePathLength, buffer);
       }
       else
       {
-        final int bufSize = 8 * 1024;
-        byte[] data = new byte[bufSize];
-        String unmodifiedFilePath = file.getPath();
-        String relativePath = unmodifiedFilePath.substring(basePathLength);
-        try (FileInputStream fi = new FileInputStream(unmodifiedFilePath);
-             BufferedInputStream origin = new BufferedInputStream(fi, bufSize))
+        String relativePath = file.getPath().substring(basePathLength);
+        try (FileInputStream in = new FileInputStream(file))
         {
-          ZipEntry entry = new ZipEntry(relativePath);
-          out.putNextEntry(entry);
-          int count;
-          while ((count = origin.read(data, 0, bufSize)) != -1)
-          {
-            out.write(data, 0, count);
-          }
+          out.putNextEntry(new ZipEntry(relativePath));
+          copy(in, out, buffer);
+          out.closeEntry();
         }
       }
     }
   }
 
-  private void saveSystemLogcat(String path)
+  @Nullable
+  private static Process startLogcat()
   {
-    final String cmd = "logcat -d -v time";
-    Process process;
     try
     {
-      process = Runtime.getRuntime().exec(cmd);
+      return Runtime.getRuntime().exec("logcat -d -v time");
     }
     catch (IOException e)
     {
       Logger.e(TAG, "Failed to get system logcat", e);
-      return;
+      return null;
     }
+  }
 
-    path += File.separator + "logcat.log";
-    final File file = new File(path);
-    try (InputStreamReader reader = new InputStreamReader(process.getInputStream());
-         FileWriter writer = new FileWriter(file))
+  private void zipLogcat(@NonNull ZipOutputStream out, @Nullable Process logcat, @NonNull byte[] buffer)
+      throws IOException
+  {
+    out.putNextEntry(new ZipEntry(File.separator + LOGCAT_FILENAME));
+    out.write(LogsManager.INSTANCE.getSystemInformation().getBytes(StandardCharsets.UTF_8));
+    if (logcat != null)
     {
-      writer.write(LogsManager.INSTANCE.getSystemInformation());
-      char[] buffer = new char[10000];
-      do
+      try (InputStream in = logcat.getInputStream())
+      {
+        copy(in, out, buffer);
+      }
+      catch (IOException e)
       {
-        int n = reader.read(buffer, 0, buffer.length);
-        if (n == -1)
-          break;
-        writer.write(buffer, 0, n);
+        // Logs saved so far are still useful.
+        Logger.e(TAG, "Failed to read system logcat", e);
       }
-      while (true);
     }
-    catch (Throwable e)
+    out.closeEntry();
+  }
+
+  private void zipLogRing(@NonNull ZipOutputStream out, @NonNull File folder) throws IOException
+  {
+    final File ringFile = new File(folder, BinaryLogRing.FILENAME);
+    final BinaryLogRing ring = LogsManager.INSTANCE.getLogRing();
+    // The ring of the previous run is decoded too, e.g. if it has crashed.
+    if (ring == null && !ringFile.exists())
+      return;
+
+    out.putNextEntry(new ZipEntry(File.separator + BinaryLogRing.FILENAME + ".log"));
+    // Not closed to keep the zip stream opened.
+    final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    try
     {
-      Logger.e(TAG, "Failed to save system logcat to " + path, e);
+      if (ring != null)
+        ring.decode(writer);
+      else
+        BinaryLogRing.decode(ringFile, writer);
     }
+    catch (IOException e)
+    {
+      // The zip stream is fine, the ring could be corrupted.
+      writer.write("Failed to decode the log ring: " + e + "\n");
+    }
+    writer.flush();
+    out.closeEntry();
+  }
+
+  private static void copy(@NonNull InputStream in, @NonNull OutputStream out, @NonNull byte[] buffer)
+      throws IOException
+  {
+    int count;
+    while ((count = in.read(buffer)) != -1)
+      out.write(buffer, 0, count);
   }
 }
@@ -0,0 +1,94 @@
+package app.organicmaps.sdk.location;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HeadingFilterTest
+{
+  private static final double EPS = 1e-9;
+
+  // Difference of the angles in degrees, 0 and 360 are the same angle.
+  private static double degreesBetween(double a, double b)
+  {
+    final double diff = Math.abs(Math.toDegrees(a - b)) % 360;
+    return Math.min(diff, 360 - diff);
+  }
+
+  @Test
+  public void firstSampleIsPassed()
+  {
+    final HeadingFilter filter = new HeadingFilter(0.25, 30, 1);
+    assertTrue(Double.isNaN(filter.getHeading()));
+    assertTrue(filter.add(1.0));
+    assertEquals(1.0, filter.getHeading(), EPS);
+  }
+
+  @Test
+  public void wrapAround()
+  {
+    final HeadingFilter filter = new HeadingFilter(0.25, 30, 1);
+    assertTrue(filter.add(Math.toRadians(359.5)));
+    // The samples around the north are close, not half a turn away.
+    for (int i = 0; i < 20; ++i)
+    {
+      filter.add(Math.toRadians(i % 2 == 0 ? 0.3 : 359.7));
+      final double heading = filter.getHeading();
+      assertTrue(heading >= 0 && heading < 2 * Math.PI);
+      assertTrue("heading = " + Math.toDegrees(heading), degreesBetween(heading, 0) < 1);
+    }
+  }
+
+  @Test
+  public void subThresholdChangesAreSuppressed()
+  {
+    final HeadingFilter filter = new HeadingFilter(0.25, 30, 1);
+    assertTrue(filter.add(Math.toRadians(90)));
+    for (int i = 0; i < 50; ++i)
+      assertFalse(filter.add(Math.toRadians(i % 2 == 0 ? 90.8 : 89.2)));
+    assertEquals(Math.toRadians(90), filter.getHeading(), EPS);
+  }
+
+  @Test
+  public void largeTurnIsFollowedAtOnce()
+  {
+    final HeadingFilter filter = new HeadingFilter(0.25, 30, 1);
+    assertTrue(filter.add(Math.toRadians(10)));
+    // The turn is over turnDegrees, the first sample is not smoothed.
+    assertTrue(filter.add(Math.toRadians(100)));
+    assertEquals(100, Math.toDegrees(filter.getHeading()), 1e-6);
+    // Through the north too.
+    assertTrue(filter.add(Math.toRadians(300)));
+    assertEquals(300, Math.toDegrees(filter.getHeading()), 1e-6);
+  }
+
+  @Test
+  public void smallTurnIsSmoothed()
+  {
+    final HeadingFilter filter = new HeadingFilter(0.25, 30, 0);
+    filter.add(Math.toRadians(0));
+    filter.add(Math.toRadians(6));
+    final double heading = Math.toDegrees(filter.getHeading());
+    assertTrue("heading = " + heading, heading > 0 && heading < 6);
+  }
+
+  @Test
+  public void reset()
+  {
+    final HeadingFilter filter = new HeadingFilter(0.25, 30, 1);
+    assertTrue(filter.add(Math.toRadians(90)));
+    filter.reset();
+    assertTrue(Double.isNaN(filter.getHeading()));
+    // The previous samples are forgotten, the next one is taken as is even if it is close to them.
+    assertTrue(filter.add(Math.toRadians(90.5)));
+    assertEquals(Math.toRadians(90.5), filter.getHeading(), EPS);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidAlpha()
+  {
+    new HeadingFilter(0, 30, 1);
+  }
+}
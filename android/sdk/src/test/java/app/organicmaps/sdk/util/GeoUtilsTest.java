@@ -0,0 +1,123 @@
+package app.organicmaps.sdk.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks that the Java geometry gives the same values as the core. The expected values are taken
+ * from geometry/geometry_tests (distance_on_sphere_test.cpp, mercator_test.cpp and angle_test.cpp).
+ */
+public class GeoUtilsTest
+{
+  private static final double EPS = 1e-9;
+  private static final double PI4 = Math.PI / 4;
+  private static final double PI2 = Math.PI / 2;
+
+  // Asserts the angles are equal, 0 and 2 * pi are the same angle.
+  private static void assertAngle(double expected, double actual)
+  {
+    final double diff = Math.abs(expected - actual) % (2 * Math.PI);
+    assertTrue("expected " + expected + " but was " + actual, Math.min(diff, 2 * Math.PI - diff) < EPS);
+  }
+
+  // Azimuth between two mercator points, the source is passed as the lat lon as the core does.
+  private static double azimuth(double srcX, double srcY, double dstX, double dstY, double north)
+  {
+    final double azimuth = GeoUtils.azimuth(dstX, dstY, GeoUtils.yToLat(srcY), srcX, north);
+    assertTrue("Out of [0, 2 * pi]: " + azimuth, azimuth >= 0 && azimuth <= 2 * Math.PI);
+    return azimuth;
+  }
+
+  @Test
+  public void distanceOnEarth()
+  {
+    assertEquals(13358, GeoUtils.distanceOnEarth(30, 0, 30, 180) * 0.001, 1);
+    assertEquals(4309, GeoUtils.distanceOnEarth(30, 0, 30, 45) * 0.001, 1);
+    assertEquals(4309, GeoUtils.distanceOnEarth(-30, 0, -30, 45) * 0.001, 1);
+    assertEquals(1519, GeoUtils.distanceOnEarth(47.37, 8.56, 53.91, 27.56) * 0.001, 1);
+    assertEquals(8302, GeoUtils.distanceOnEarth(43, 132, 38, -122.5) * 0.001, 1);
+  }
+
+  @Test
+  public void distanceOnEarth_samePoint()
+  {
+    assertEquals(0, GeoUtils.distanceOnEarth(0, -180, 0, 180), 1e-3);
+    assertEquals(0, GeoUtils.distanceOnEarth(-30, 23, -30, 23), 1e-3);
+    assertEquals(0, GeoUtils.distanceOnEarth(90, 0, 90, 120), 1e-3);
+    assertEquals(Math.PI * GeoUtils.EARTH_RADIUS_METERS, GeoUtils.distanceOnEarth(90, 0, -90, 120), 1e-3);
+  }
+
+  @Test
+  public void mercator_roundTrip()
+  {
+    for (int lat = -85; lat <= 85; ++lat)
+      assertEquals(lat, GeoUtils.yToLat(GeoUtils.latToY(lat)), 1e-7);
+    assertEquals(34.28754, GeoUtils.yToLat(GeoUtils.latToY(34.28754)), 1e-7);
+    assertEquals(0, GeoUtils.latToY(0), 0);
+  }
+
+  @Test
+  public void mercator_latitudeClamping()
+  {
+    // The latitude is clamped to +-86 degrees, and y to the mercator bounds.
+    assertEquals(180, GeoUtils.latToY(86), 0);
+    assertEquals(180, GeoUtils.latToY(90), 0);
+    assertEquals(-180, GeoUtils.latToY(-86), 0);
+    assertEquals(-180, GeoUtils.latToY(-90), 0);
+    assertEquals(180, GeoUtils.latToY(85.5), 0);
+    assertTrue(GeoUtils.latToY(85) < 180);
+    // Latitude of the mercator bounds.
+    assertEquals(85.0511287798, GeoUtils.yToLat(180), 1e-9);
+  }
+
+  @Test
+  public void azimuth_coreValues()
+  {
+    assertAngle(-PI4, azimuth(-1, 0, 0, 1, PI2));
+    assertAngle(PI4, azimuth(-1, 0, 0, 1, 0.0));
+    assertAngle(3 * PI4, azimuth(-1, 1, 1, -1, 0.0));
+    assertAngle(0.0, azimuth(1, 1, 0, 1, -PI2));
+    assertAngle(PI2, azimuth(1, -1, -1, -1, Math.PI));
+    assertAngle(Math.PI, azimuth(0, 0, -1, -1, PI4));
+    assertAngle(-PI2, azimuth(0.5, -0.5, -0.5, 0.5, PI4));
+    assertAngle(0.0, azimuth(0.1, 0.1, 0.2, 0.2, PI4));
+    assertAngle(3 * PI4, azimuth(0.7, 0.7, -0.2, -0.2, PI2));
+  }
+
+  @Test
+  public void azimuth_wrapAround()
+  {
+    // To the north-north-west, just below 2 * pi.
+    final double nnw = azimuth(0, 0, -0.001, 1, 0.0);
+    assertTrue(nnw > 1.5 * Math.PI && nnw < 2 * Math.PI);
+    // Turning the device a bit to the west wraps it to just above 0.
+    final double turned = azimuth(0, 0, -0.001, 1, -0.01);
+    assertTrue(turned >= 0 && turned < 0.01);
+    assertAngle(nnw + 0.01, turned);
+  }
+
+  @Test
+  public void azimuth_north()
+  {
+    final double absolute = GeoUtils.azimuthFromLatLon(59.93, 30.33, 55.75, 37.61, 0.0);
+    for (double north = -Math.PI; north < 2 * Math.PI; north += 0.1)
+    {
+      final double relative = GeoUtils.azimuthFromLatLon(59.93, 30.33, 55.75, 37.61, north);
+      assertTrue(relative >= 0 && relative <= 2 * Math.PI);
+      assertAngle(absolute - north, relative);
+    }
+  }
+
+  @Test
+  public void azimuthFromLatLon()
+  {
+    assertAngle(0.0, GeoUtils.azimuthFromLatLon(10, 20, 0, 20, 0.0));
+    assertAngle(PI2, GeoUtils.azimuthFromLatLon(0, 21, 0, 20, 0.0));
+    assertAngle(Math.PI, GeoUtils.azimuthFromLatLon(-10, 20, 0, 20, 0.0));
+    assertAngle(3 * PI2, GeoUtils.azimuthFromLatLon(0, 19, 0, 20, 0.0));
+    assertEquals(GeoUtils.azimuth(30.33, GeoUtils.latToY(59.93), 55.75, 37.61, 0.3),
+                 GeoUtils.azimuthFromLatLon(59.93, 30.33, 55.75, 37.61, 0.3), 0);
+  }
+}
@@ -578,6 +578,9 @@ void BookmarkManager::NotifyChanges(bool saveChangesOnDisk)
   if (m_changesTracker.HasCategoriesChanges())
     NotifyCategoriesChanged();
 
+  if (m_changesTracker.HasBookmarksChanges() || m_changesTracker.HasCategoriesChanges())
+    NotifyCategoriesChanges();
+
   m_bookmarksChangesTracker.AddChanges(m_changesTracker);
   m_drapeChangesTracker.AddChanges(m_changesTracker);
   m_changesTracker.ResetChanges();
@@ -1843,6 +1846,11 @@ void BookmarkManager::SetCategoriesChangedCallback(CategoriesChangedCallback &&
   m_categoriesChangedCallback = std::move(callback);
 }
 
+void BookmarkManager::SetCategoriesChangesCallback(CategoriesChangesCallback && callback)
+{
+  m_categoriesChangesCallback = std::move(callback);
+}
+
 void BookmarkManager::SetAsyncLoadingCallbacks(AsyncLoadingCallbacks && callbacks)
 {
   m_asyncLoadingCallbacks = std::move(callbacks);
@@ -2044,15 +2052,24 @@ void BookmarkManager::LoadBookmarks()
 void BookmarkManager::LoadBookmark(std::string const & filePath, bool isTemporaryFile)
 {
   CHECK_THREAD_CHECKER(m_threadChecker, ());
+  LoadBookmarks(std::vector<std::string>{filePath}, isTemporaryFile);
+}
+
+void BookmarkManager::LoadBookmarks(std::vector<std::string> const & filePaths, bool isTemporaryFile)
+{
+  CHECK_THREAD_CHECKER(m_threadChecker, ());
+  if (filePaths.empty())
+    return;
+
   // Defer bookmark loading in case of another asynchronous process.
   if (!m_loadBookmarksFinished || m_asyncLoadingInProgress)
   {
-    m_bookmarkLoadingQueue.emplace_back(filePath, isTemporaryFile, false);
+    m_bookmarkLoadingQueue.emplace_back(filePaths, isTemporaryFile, false);
     return;
   }
 
   NotifyAboutStartAsyncLoading();
-  LoadBookmarkRoutine(filePath, isTemporaryFile);
+  LoadBookmarkRoutine(filePaths, isTemporaryFile);
 }
 
 void BookmarkManager::ReloadBookmark(std::string const & filePath)
@@ -2060,58 +2077,77 @@ void BookmarkManager::ReloadBookmark(std::string const & filePath)
   CHECK_THREAD_CHECKER(m_threadChecker, ());
   if (!m_loadBookmarksFinished || m_asyncLoadingInProgress)
   {
-    m_bookmarkLoadingQueue.emplace_back(filePath, false, true);
+    m_bookmarkLoadingQueue.emplace_back(std::vector<std::string>{filePath}, false, true);
     return;
   }
   NotifyAboutStartAsyncLoading();
   ReloadBookmarkRoutine(filePath);
 }
 
-void BookmarkManager::LoadBookmarkRoutine(std::string const & filePath, bool isTemporaryFile)
+void BookmarkManager::LoadBookmarkRoutine(std::vector<std::string> const & filePaths, bool isTemporaryFile)
 {
-  GetPlatform().RunTask(Platform::Thread::File, [this, filePath, isTemporaryFile]()
+  GetPlatform().RunTask(Platform::Thread::File, [this, filePaths, isTemporaryFile]()
   {
     if (m_needTeardown)
       return;
 
     auto collection = std::make_shared<KMLDataCollection>();
+    // The first loaded and the first failed files are reported, the rest of the batch is summarized by them.
+    std::string const * succeededPath = nullptr;
+    std::string const * failedPath = nullptr;
 
-    // Convert KML/KMZ/KMB files to temp KML file and GPX to temp GPX file.
-    for (auto const & fileToLoad : GetKMLOrGPXFilesPathsToLoad(filePath))
+    for (auto const & filePath : filePaths)
     {
-      auto const ext = GetLowercaseFileExt(fileToLoad);
-      std::unique_ptr<kml::FileData> kmlData;
-      if (ext == kKmlExtension)
-        kmlData = LoadKmlFile(fileToLoad, KmlFileType::Text);
-      else if (ext == kGpxExtension)
-        kmlData = LoadKmlFile(fileToLoad, KmlFileType::Gpx);
-      else
-        ASSERT(false, ("Unsupported bookmarks extension", ext));
+      size_t const loadedCount = collection->size();
+
+      // Convert KML/KMZ/KMB files to temp KML file and GPX to temp GPX file.
+      for (auto const & fileToLoad : GetKMLOrGPXFilesPathsToLoad(filePath))
+      {
+        auto const ext = GetLowercaseFileExt(fileToLoad);
+        std::unique_ptr<kml::FileData> kmlData;
+        if (ext == kKmlExtension)
+          kmlData = LoadKmlFile(fileToLoad, KmlFileType::Text);
+        else if (ext == kGpxExtension)
+          kmlData = LoadKmlFile(fileToLoad, KmlFileType::Gpx);
+        else
+          ASSERT(false, ("Unsupported bookmarks extension", ext));
 
-      base::DeleteFileX(fileToLoad);
+        base::DeleteFileX(fileToLoad);
 
-      if (m_needTeardown)
-        return;
+        if (m_needTeardown)
+          return;
 
-      if (kmlData && (!kmlData->m_tracksData.empty() || !kmlData->m_bookmarksData.empty()))
-      {
-        // Set last modified date for imported tracks before saving them, if it wasn't set in KML/GPX file.
-        if (kmlData->m_categoryData.m_lastModified == kml::Timestamp{})
-          kmlData->m_categoryData.m_lastModified = FileModificationTimestamp(filePath);
+        if (kmlData && (!kmlData->m_tracksData.empty() || !kmlData->m_bookmarksData.empty()))
+        {
+          // Set last modified date for imported tracks before saving them, if it wasn't set in KML/GPX file.
+          if (kmlData->m_categoryData.m_lastModified == kml::Timestamp{})
+            kmlData->m_categoryData.m_lastModified = FileModificationTimestamp(filePath);
 
-        auto kmlFileToLoad = GenerateValidAndUniqueFilePathForKML(base::GetNameFromFullPathWithoutExt(fileToLoad));
+          auto kmlFileToLoad = GenerateValidAndUniqueFilePathForKML(base::GetNameFromFullPathWithoutExt(fileToLoad));
 
-        if (!SaveKmlFileSafe(*kmlData, kmlFileToLoad, KmlFileType::Text))
-          base::DeleteFileX(kmlFileToLoad);
-        else
-          collection->emplace_back(std::move(kmlFileToLoad), std::move(kmlData));
+          if (!SaveKmlFileSafe(*kmlData, kmlFileToLoad, KmlFileType::Text))
+            base::DeleteFileX(kmlFileToLoad);
+          else
+            collection->emplace_back(std::move(kmlFileToLoad), std::move(kmlData));
+        }
       }
+
+      bool const success = collection->size() > loadedCount;
+      std::string const *& reportedPath = success ? succeededPath : failedPath;
+      if (reportedPath == nullptr)
+        reportedPath = &filePath;
+      // Temporary files of the reported paths are deleted by the platform in the file callback.
+      else if (isTemporaryFile)
+        base::DeleteFileX(filePath);
     }
 
     if (m_needTeardown)
       return;
 
-    NotifyAboutFile(!collection->empty() /* success */, filePath, isTemporaryFile);
+    if (succeededPath != nullptr)
+      NotifyAboutFile(true /* success */, *succeededPath, isTemporaryFile);
+    if (failedPath != nullptr)
+      NotifyAboutFile(false /* success */, *failedPath, isTemporaryFile);
     NotifyAboutFinishAsyncLoading(std::move(collection));
   });
 }
@@ -2182,9 +2218,9 @@ void BookmarkManager::NotifyAboutFinishAsyncLoading(KMLDataCollectionPtr && coll
     {
       ASSERT(m_asyncLoadingInProgress, ());
       if (m_bookmarkLoadingQueue.front().m_isReloading)
-        ReloadBookmarkRoutine(m_bookmarkLoadingQueue.front().m_filename);
+        ReloadBookmarkRoutine(m_bookmarkLoadingQueue.front().m_filenames.front());
       else
-        LoadBookmarkRoutine(m_bookmarkLoadingQueue.front().m_filename,
+        LoadBookmarkRoutine(m_bookmarkLoadingQueue.front().m_filenames,
                             m_bookmarkLoadingQueue.front().m_isTemporaryFile);
       m_bookmarkLoadingQueue.pop_front();
     }
@@ -2393,6 +2429,15 @@ void BookmarkManager::NotifyCategoriesChanged()
     m_categoriesChangedCallback();
 }
 
+void BookmarkManager::NotifyCategoriesChanges()
+{
+  if (m_categoriesChangesCallback != nullptr)
+  {
+    m_categoriesChangesCallback(m_changesTracker.GetCreatedGroupIds(), m_changesTracker.GetUpdatedGroupIds(),
+                                m_changesTracker.GetRemovedGroupIds());
+  }
+}
+
 bool BookmarkManager::HasBmCategory(kml::MarkGroupId groupId) const
 {
   CHECK_THREAD_CHECKER(m_threadChecker, ());
@@ -2473,9 +2518,12 @@ kml::MarkGroupId BookmarkManager::CreateBookmarkCategory(std::string const & nam
   CHECK_EQUAL(m_categories.count(groupId), 0, ());
   m_categories[groupId] = std::make_unique<BookmarkCategory>(name, groupId, autoSave);
   UpdateBmGroupIdList();
-  m_changesTracker.OnAddGroup(groupId);
   NotifyBookmarksChanged();
   NotifyCategoriesChanged();
+  // The category is created without an edit session, so it is reported here, the caller looks for it in the
+  // categories cache right away. It isn't tracked, not to be reported again by the next NotifyChanges().
+  if (m_categoriesChangesCallback != nullptr)
+    m_categoriesChangesCallback({groupId}, {}, {});
   return groupId;
 }
 
@@ -51,6 +51,9 @@ public:
 
   using BookmarksChangedCallback = std::function<void()>;
   using CategoriesChangedCallback = std::function<void()>;
+  // Ids of the created, updated and removed groups of the same notification.
+  using CategoriesChangesCallback = std::function<void(kml::GroupIdSet const &, kml::GroupIdSet const &,
+                                                       kml::GroupIdSet const &)>;
   using ElevationActivePointChangedCallback = std::function<void()>;
   using ElevationMyPositionChangedCallback = std::function<void()>;
 
@@ -177,6 +180,7 @@ public:
 
   void SetBookmarksChangedCallback(BookmarksChangedCallback && callback);
   void SetCategoriesChangedCallback(CategoriesChangedCallback && callback);
+  void SetCategoriesChangesCallback(CategoriesChangesCallback && callback);
   void SetAsyncLoadingCallbacks(AsyncLoadingCallbacks && callbacks);
   bool IsAsyncLoadingInProgress() const { return m_asyncLoadingInProgress; }
 
@@ -299,6 +303,9 @@ public:
   /// Scans and loads all kml files with bookmarks.
   void LoadBookmarks();
   void LoadBookmark(std::string const & filePath, bool isTemporaryFile);
+  /// Loads the files as a single batch: one asynchronous loading and at most one success and one error
+  /// file notification for the whole batch.
+  void LoadBookmarks(std::vector<std::string> const & filePaths, bool isTemporaryFile);
   void ReloadBookmark(std::string const & filePath);
 
   /// Uses the same file name from which was loaded, or
@@ -469,6 +476,7 @@ private:
 
     // UserMarksProvider
     kml::GroupIdSet GetAllGroupIds() const override;
+    kml::GroupIdSet const & GetCreatedGroupIds() const { return m_createdGroups; }
     kml::GroupIdSet const & GetUpdatedGroupIds() const override { return m_updatedGroups; }
     kml::GroupIdSet const & GetRemovedGroupIds() const override { return m_removedGroups; }
     kml::MarkIdSet const & GetCreatedMarkIds() const override { return m_createdMarks; }
@@ -622,7 +630,7 @@ private:
   void NotifyAboutStartAsyncLoading();
   void NotifyAboutFinishAsyncLoading(KMLDataCollectionPtr && collection);
   void NotifyAboutFile(bool success, std::string const & filePath, bool isTemporaryFile);
-  void LoadBookmarkRoutine(std::string const & filePath, bool isTemporaryFile);
+  void LoadBookmarkRoutine(std::vector<std::string> const & filePaths, bool isTemporaryFile);
   void ReloadBookmarkRoutine(std::string const & filePath);
 
   using BookmarksChecker = std::function<bool(kml::FileData const &)>;
@@ -634,6 +642,7 @@ private:
 
   void NotifyBookmarksChanged();
   void NotifyCategoriesChanged();
+  void NotifyCategoriesChanges();
 
   void SendBookmarksChanges(MarksChangesTracker const & changesTracker);
   void GetBookmarksInfo(kml::MarkIdSet const & marks, std::vector<BookmarkInfo> & bookmarks) const;
@@ -731,6 +740,7 @@ private:
 
   BookmarksChangedCallback m_bookmarksChangedCallback;
   CategoriesChangedCallback m_categoriesChangedCallback;
+  CategoriesChangesCallback m_categoriesChangesCallback;
   ElevationActivePointChangedCallback m_elevationActivePointChanged;
   ElevationMyPositionChangedCallback m_elevationMyPositionChanged;
   m2::PointD m_lastElevationMyPosition = m2::PointD::Zero();
@@ -772,13 +782,13 @@ private:
   bool m_asyncLoadingInProgress = false;
   struct BookmarkLoaderInfo
   {
-    BookmarkLoaderInfo(std::string const & filename, bool isTemporaryFile, bool isReloading)
-      : m_filename(filename)
+    BookmarkLoaderInfo(std::vector<std::string> const & filenames, bool isTemporaryFile, bool isReloading)
+      : m_filenames(filenames)
       , m_isTemporaryFile(isTemporaryFile)
       , m_isReloading(isReloading)
     {}
 
-    std::string m_filename;
+    std::vector<std::string> m_filenames;
     bool m_isTemporaryFile = false;
     bool m_isReloading = false;
   };
@@ -923,6 +923,11 @@ void Framework::AddBookmarksFile(string const & filePath, bool isTemporaryFile)
   GetBookmarkManager().LoadBookmark(filePath, isTemporaryFile);
 }
 
+void Framework::AddBookmarksFiles(vector<string> const & filePaths, bool isTemporaryFile)
+{
+  GetBookmarkManager().LoadBookmarks(filePaths, isTemporaryFile);
+}
+
 void Framework::PrepareToShutdown()
 {
   DestroyDrapeEngine();
@@ -293,6 +293,7 @@ public:
   void ShowBookmarkCategory(kml::MarkGroupId categoryId, bool animation = true);
 
   void AddBookmarksFile(std::string const & filePath, bool isTemporaryFile);
+  void AddBookmarksFiles(std::vector<std::string> const & filePaths, bool isTemporaryFile);
 
   BookmarkManager & GetBookmarkManager();
   BookmarkManager const & GetBookmarkManager() const;